@@ -1,85 +1,169 @@
 package com.github.kohanyirobert.ebson;
 
-import com.google.common.base.Objects;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.UnsignedInts;
+import com.google.common.primitives.UnsignedLongs;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
-import javax.xml.bind.DatatypeConverter;
-
-final class BasicObjectId implements BsonObjectId {
+final class BasicObjectId implements BsonObjectId, Comparable<BsonObjectId> {
 
   private static final int TIME_LENGTH = 4;
   private static final int MACHINE_ID_LENGTH = 3;
   private static final int PROCESS_ID_LENGTH = 2;
   private static final int INCREMENT_LENGTH = 3;
-  private static final int OBJECT_ID_LENGTH =
+  static final int OBJECT_ID_LENGTH =
       TIME_LENGTH + MACHINE_ID_LENGTH + PROCESS_ID_LENGTH + INCREMENT_LENGTH;
 
-  private final ByteBuffer time;
-  private final ByteBuffer machineId;
-  private final ByteBuffer processId;
-  private final ByteBuffer increment;
+  private static final int MACHINE_ID_OFFSET = TIME_LENGTH;
+  private static final int PROCESS_ID_OFFSET = MACHINE_ID_OFFSET + MACHINE_ID_LENGTH;
+  private static final int INCREMENT_OFFSET = PROCESS_ID_OFFSET + PROCESS_ID_LENGTH;
 
-  private final ByteBuffer objectId = ByteBuffer.allocate(OBJECT_ID_LENGTH).order(ByteOrder.BIG_ENDIAN);
+  // the first eight and the last four bytes of the object id (big-endian)
+  private final long high;
+  private final int low;
 
   BasicObjectId(ByteBuffer buffer) {
-    int oldPosition = buffer.position();
+    long readHigh = buffer.getLong();
+    int readLow = buffer.getInt();
+    if (buffer.order() == ByteOrder.LITTLE_ENDIAN) {
+      readHigh = Long.reverseBytes(readHigh);
+      readLow = Integer.reverseBytes(readLow);
+    }
+    high = readHigh;
+    low = readLow;
+  }
 
-    int oldLimit = buffer.limit();
-    buffer.limit(buffer.position() + OBJECT_ID_LENGTH);
-    objectId.put(buffer).flip();
-    buffer.limit(oldLimit);
+  BasicObjectId(long high, int low) {
+    this.high = high;
+    this.low = low;
+  }
 
-    assert buffer.position() == oldPosition + OBJECT_ID_LENGTH;
+  // returns 'objectId' itself if it's a basic one or a copy of its bytes
+  static BasicObjectId of(BsonObjectId objectId) {
+    return objectId instanceof BasicObjectId
+        ? (BasicObjectId) objectId
+        : new BasicObjectId(objectId.objectId().duplicate());
+  }
+
+  // reads the object id at 'position' of a little-endian buffer
+  static BasicObjectId readFrom(ByteBuffer buffer, int position) {
+    return new BasicObjectId(
+        Long.reverseBytes(buffer.getLong(position)),
+        Integer.reverseBytes(buffer.getInt(position + Longs.BYTES)));
+  }
 
-    time = ByteBuffer.wrap(objectId.array(), 0, TIME_LENGTH).order(ByteOrder.BIG_ENDIAN);
-    machineId = ByteBuffer.wrap(objectId.array(), TIME_LENGTH, MACHINE_ID_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
-    processId = ByteBuffer.wrap(objectId.array(), MACHINE_ID_LENGTH, PROCESS_ID_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
-    increment = ByteBuffer.wrap(objectId.array(), PROCESS_ID_LENGTH, INCREMENT_LENGTH).order(ByteOrder.BIG_ENDIAN);
+  // writes this object id into a little-endian buffer
+  void writeTo(ByteBuffer buffer) {
+    buffer.putLong(Long.reverseBytes(high)).putInt(Integer.reverseBytes(low));
   }
 
   @Override
   public ByteBuffer objectId() {
-    return objectId.asReadOnlyBuffer();
+    ByteBuffer objectId = ByteBuffer.allocate(OBJECT_ID_LENGTH).putLong(high).putInt(low);
+    objectId.flip();
+    return objectId;
   }
 
   @Override
   public ByteBuffer time() {
-    return time.asReadOnlyBuffer();
+    return view(0, TIME_LENGTH, ByteOrder.BIG_ENDIAN);
   }
 
   @Override
   public ByteBuffer machineId() {
-    return machineId.asReadOnlyBuffer();
+    return view(MACHINE_ID_OFFSET, MACHINE_ID_LENGTH, ByteOrder.LITTLE_ENDIAN);
   }
 
   @Override
   public ByteBuffer processId() {
-    return processId.asReadOnlyBuffer();
+    return view(PROCESS_ID_OFFSET, PROCESS_ID_LENGTH, ByteOrder.LITTLE_ENDIAN);
   }
 
   @Override
   public ByteBuffer increment() {
-    return increment.asReadOnlyBuffer();
+    return view(INCREMENT_OFFSET, INCREMENT_LENGTH, ByteOrder.BIG_ENDIAN);
+  }
+
+  int timestampSeconds() {
+    return (int) (high >>> Integer.SIZE);
+  }
+
+  // the machine and process identifiers are little-endian, the same as their
+  // views
+  int machineIdentifier() {
+    return Integer.reverseBytes((int) high) & 0xffffff;
+  }
+
+  short processIdentifier() {
+    return (short) ((low >>> 3 * Byte.SIZE) << Byte.SIZE | high & 0xff);
+  }
+
+  int counter() {
+    return low & 0xffffff;
   }
 
+  @Override
+  public int compareTo(BsonObjectId other) {
+    if (other instanceof BasicObjectId) {
+      BasicObjectId basic = (BasicObjectId) other;
+      int result = UnsignedLongs.compare(high, basic.high);
+      return result != 0
+          ? result
+          : UnsignedInts.compare(low, basic.low);
+    }
+    ByteBuffer otherObjectId = other.objectId().duplicate().order(ByteOrder.BIG_ENDIAN);
+    int result = UnsignedLongs.compare(high, otherObjectId.getLong());
+    return result != 0
+        ? result
+        : UnsignedInts.compare(low, otherObjectId.getInt());
+  }
+
+  // the hash code of objectId() (as equals accepts any object id) computed
+  // without allocating it
   @Override
   public int hashCode() {
-    return Objects.hashCode(objectId);
+    int hash = 1;
+    for (int shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+      hash = 31 * hash + (byte) (low >>> shift);
+    }
+    for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+      hash = 31 * hash + (byte) (high >>> shift);
+    }
+    return hash;
   }
 
   @Override
   public boolean equals(Object object) {
+    if (object instanceof BasicObjectId) {
+      BasicObjectId other = (BasicObjectId) object;
+      return high == other.high && low == other.low;
+    }
     if (object instanceof BsonObjectId) {
       BsonObjectId other = (BsonObjectId) object;
-      return objectId.equals(other.objectId());
+      return objectId().equals(other.objectId());
     }
     return false;
   }
 
   @Override
   public String toString() {
-    return DatatypeConverter.printHexBinary(objectId.array()).toLowerCase();
+    return new StringBuilder(OBJECT_ID_LENGTH * 2)
+        .append(hex(high >>> Integer.SIZE))
+        .append(hex(high & 0xffffffffL))
+        .append(hex(low & 0xffffffffL))
+        .toString();
+  }
+
+  private ByteBuffer view(int offset, int length, ByteOrder order) {
+    ByteBuffer objectId = objectId();
+    objectId.position(offset).limit(offset + length);
+    return objectId.slice().order(order);
+  }
+
+  private static String hex(long word) {
+    String hex = Long.toHexString(word);
+    return "00000000".substring(hex.length()) + hex;
   }
 }
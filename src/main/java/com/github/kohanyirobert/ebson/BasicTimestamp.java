@@ -1,68 +1,84 @@
 package com.github.kohanyirobert.ebson;
 
-import com.google.common.base.Objects;
-
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
-import javax.xml.bind.DatatypeConverter;
-
 final class BasicTimestamp implements BsonTimestamp {
 
   private static final int TIME_LENGTH = 4;
   private static final int INCREMENT_LENGTH = 4;
-  private static final int TIMESTAMP_LENGTH = TIME_LENGTH + INCREMENT_LENGTH;
-
-  private final ByteBuffer time;
-  private final ByteBuffer increment;
+  static final int TIMESTAMP_LENGTH = TIME_LENGTH + INCREMENT_LENGTH;
 
-  private final ByteBuffer timestamp = ByteBuffer.allocate(TIMESTAMP_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+  // the increment is the low and the time is the high half of the value
+  private final long value;
 
   BasicTimestamp(ByteBuffer buffer) {
-    int oldPosition = buffer.position();
-
-    int oldLimit = buffer.limit();
-    buffer.limit(buffer.position() + TIMESTAMP_LENGTH);
-    timestamp.put(buffer).flip();
-    buffer.limit(oldLimit);
-
-    assert buffer.position() == oldPosition + TIMESTAMP_LENGTH;
+    long readValue = buffer.getLong();
+    value = buffer.order() == ByteOrder.LITTLE_ENDIAN
+        ? readValue
+        : Long.reverseBytes(readValue);
+  }
 
-    time = ByteBuffer.wrap(timestamp.array(), 0, TIME_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
-    increment = ByteBuffer.wrap(timestamp.array(), INCREMENT_LENGTH, TIME_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+  BasicTimestamp(long value) {
+    this.value = value;
   }
 
   @Override
   public ByteBuffer timestamp() {
-    return timestamp.asReadOnlyBuffer();
+    ByteBuffer timestamp = ByteBuffer.allocate(TIMESTAMP_LENGTH).order(ByteOrder.LITTLE_ENDIAN).putLong(value);
+    timestamp.flip();
+    return timestamp;
   }
 
   @Override
   public ByteBuffer time() {
-    return time.asReadOnlyBuffer();
+    return view(INCREMENT_LENGTH, TIME_LENGTH);
   }
 
   @Override
   public ByteBuffer increment() {
-    return increment.asReadOnlyBuffer();
+    return view(0, INCREMENT_LENGTH);
   }
 
+  // the hash code of timestamp() (as equals accepts any timestamp) computed
+  // without allocating it
   @Override
   public int hashCode() {
-    return Objects.hashCode(timestamp);
+    int hash = 1;
+    for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+      hash = 31 * hash + (byte) (value >>> shift);
+    }
+    return hash;
   }
 
   @Override
   public boolean equals(Object object) {
     if (object instanceof BsonTimestamp) {
-      BsonTimestamp other = (BsonTimestamp) object;
-      return timestamp.equals(other.timestamp());
+      return value == value((BsonTimestamp) object);
     }
     return false;
   }
 
   @Override
   public String toString() {
-    return DatatypeConverter.printHexBinary(timestamp.array()).toLowerCase();
+    // the serialized (little-endian) bytes in hex
+    String hex = Long.toHexString(Long.reverseBytes(value));
+    return "0000000000000000".substring(hex.length()) + hex;
+  }
+
+  // the value of any timestamp, read from its little-endian bytes unless it's
+  // a basic one
+  static long value(BsonTimestamp timestamp) {
+    if (timestamp instanceof BasicTimestamp) {
+      return ((BasicTimestamp) timestamp).value;
+    }
+    ByteBuffer bytes = timestamp.timestamp();
+    return bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN).getLong(bytes.position());
+  }
+
+  private ByteBuffer view(int offset, int length) {
+    ByteBuffer timestamp = timestamp();
+    timestamp.position(offset).limit(offset + length);
+    return timestamp.slice().order(ByteOrder.LITTLE_ENDIAN);
   }
 }
@@ -0,0 +1,71 @@
+package com.github.kohanyirobert.ebson;
+
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * Immutable representation of a <a href="http://bsonspec.org/">BSON</a>
+ * {@linkplain BsonObject#ARRAY array}.
+ * <p>
+ * <b>Notes:</b>
+ * <ul>
+ * <li>None of the {@linkplain List list interface's} optional operations are
+ * supported.</li>
+ * <li>Arrays whose elements are all {@linkplain BsonObject#DOUBLE floating
+ * point values}, {@linkplain BsonObject#INT64 64-bit} or
+ * {@linkplain BsonObject#INT32 32-bit integers} are backed by primitive arrays
+ * and their elements are boxed only when accessed through the list
+ * interface.</li>
+ * </ul>
+ * </p>
+ */
+public interface BsonArray extends List<Object> {
+
+  /**
+   * Returns the type of this array's elements if it is backed by a primitive
+   * array.
+   * 
+   * @return {@linkplain BsonObject#DOUBLE}, {@linkplain BsonObject#INT64} or
+   * {@linkplain BsonObject#INT32} if this array is backed by a primitive array;
+   * null otherwise
+   */
+  @CheckForNull
+  BsonObject elementType();
+
+  /**
+   * Returns the primitive array backing this array.
+   * <p>
+   * <b>Note:</b> the returned array must not be modified.
+   * </p>
+   * 
+   * @return the primitive array backing this array
+   * @throws IllegalStateException if this array is not backed by a
+   * {@code double} array
+   */
+  double[] doubleArray();
+
+  /**
+   * Returns the primitive array backing this array.
+   * <p>
+   * <b>Note:</b> the returned array must not be modified.
+   * </p>
+   * 
+   * @return the primitive array backing this array
+   * @throws IllegalStateException if this array is not backed by a
+   * {@code long} array
+   */
+  long[] longArray();
+
+  /**
+   * Returns the primitive array backing this array.
+   * <p>
+   * <b>Note:</b> the returned array must not be modified.
+   * </p>
+   * 
+   * @return the primitive array backing this array
+   * @throws IllegalStateException if this array is not backed by an
+   * {@code int} array
+   */
+  int[] intArray();
+}
@@ -1,5 +1,6 @@
 package com.github.kohanyirobert.ebson;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
@@ -51,6 +52,17 @@ public enum BsonBinary {
    */
   USER(BsonBytes.USER);
 
+  private static final int TERMINALS = 256;
+
+  private static final BsonBinary[] TERMINAL_TABLE = new BsonBinary[TERMINALS];
+  private static volatile ClassTable classTable = new ClassTable();
+
+  static {
+    for (BsonBinary binary : values()) {
+      TERMINAL_TABLE[binary.terminal() & (TERMINALS - 1)] = binary;
+    }
+  }
+
   private final byte terminal;
 
   private Predicate<Class<?>> predicate;
@@ -98,6 +110,7 @@ public enum BsonBinary {
   public void predicate(Predicate<Class<?>> predicate) {
     Preconditions.checkNotNull(predicate, "cannot associate a null predicate with '%s'", this);
     this.predicate = predicate;
+    invalidate();
   }
 
   /**
@@ -120,6 +133,7 @@ public enum BsonBinary {
   public void reader(BsonReader reader) {
     Preconditions.checkNotNull(reader, "cannot associate a null reader with '%s'", this);
     this.reader = reader;
+    invalidate();
   }
 
   /**
@@ -142,6 +156,7 @@ public enum BsonBinary {
   public void writer(BsonWriter writer) {
     Preconditions.checkNotNull(writer, "cannot associate a null writer with '%s'", this);
     this.writer = writer;
+    invalidate();
   }
 
   /**
@@ -153,13 +168,12 @@ public enum BsonBinary {
    * was found
    */
   public static BsonBinary find(@Nullable Class<?> clazz) {
-    for (BsonBinary binary : values()) {
-      if (binary.predicate().apply(clazz)) {
-        return binary;
-      }
+    BsonBinary binary = lookup(clazz);
+    if (binary == null) {
+      throw new IllegalArgumentException(String.format("no binary "
+          + "representing the '%s' type value was found", clazz));
     }
-    throw new IllegalArgumentException(String.format("no binary "
-        + "representing the '%s' type value was found", clazz));
+    return binary;
   }
 
   /**
@@ -171,12 +185,50 @@ public enum BsonBinary {
    * was found
    */
   public static BsonBinary find(byte terminal) {
+    BsonBinary binary = TERMINAL_TABLE[terminal & (TERMINALS - 1)];
+    if (binary == null) {
+      throw new IllegalArgumentException(String.format("no binary representing "
+          + "the '%s' terminal value was found", Byte.valueOf(terminal)));
+    }
+    return binary;
+  }
+
+  // returns the binary representing 'clazz' or null if there is none; the
+  // result is cached per class until a predicate, reader or writer changes
+  @Nullable
+  static BsonBinary lookup(@Nullable Class<?> clazz) {
+    return classTable.lookup(clazz);
+  }
+
+  // objects' predicates depend on binaries' predicates (see
+  // DefaultPredicate.BINARY) so their cache is invalidated as well
+  private static void invalidate() {
+    classTable = new ClassTable();
+    BsonObject.invalidate();
+  }
+
+  @Nullable
+  private static BsonBinary scan(@Nullable Class<?> clazz) {
     for (BsonBinary binary : values()) {
-      if (binary.terminal() - terminal == 0) {
+      if (binary.predicate().apply(clazz)) {
         return binary;
       }
     }
-    throw new IllegalArgumentException(String.format("no binary representing "
-        + "the '%s' terminal value was found", Byte.valueOf(terminal)));
+    return null;
+  }
+
+  private static final class ClassTable extends ClassValue<Optional<BsonBinary>> {
+
+    private final Optional<BsonBinary> nullBinary = Optional.fromNullable(scan(null));
+
+    @Override
+    protected Optional<BsonBinary> computeValue(Class<?> type) {
+      return Optional.fromNullable(scan(type));
+    }
+
+    @Nullable
+    BsonBinary lookup(@Nullable Class<?> clazz) {
+      return (clazz == null ? nullBinary : get(clazz)).orNull();
+    }
   }
 }
@@ -0,0 +1,80 @@
+package com.github.kohanyirobert.ebson;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * Incremental decoder of consecutive serialized {@linkplain BsonDocument
+ * documents} arriving in arbitrarily sized chunks (e.g. from non-blocking
+ * sockets).
+ * <p>
+ * <b>Notes:</b>
+ * <ul>
+ * <li>A decoder keeps its parse position between calls and continues where it
+ * left off once the next chunk arrives.</li>
+ * <li>When decoding documents, the bytes of an incomplete document are kept
+ * until its last byte arrives; documents that are completely contained by a
+ * chunk are decoded directly from it without being copied.</li>
+ * <li>When visiting documents, elements are passed to the visitor as soon as
+ * their bytes have arrived (embedded documents and arrays as soon as their
+ * length prefix has), so only the bytes of an incomplete element are kept.
+ * </li>
+ * <li>The two ways of decoding can be mixed, but only between documents.</li>
+ * <li>Chunks supplied to a decoder must use little-endian byte ordering.</li>
+ * <li>Decoders can be acquired via the {@linkplain BsonDocuments documents
+ * utility class} and they are not thread-safe.</li>
+ * </ul>
+ * </p>
+ */
+public interface BsonDecoder {
+
+  /**
+   * Consumes bytes from {@code chunk} until a document is completed or
+   * {@code chunk} is exhausted.
+   * <p>
+   * <b>Note:</b> call this method repeatedly with the same chunk until it
+   * returns null to decode every document completed by {@code chunk}.
+   * </p>
+   * 
+   * @param chunk the next chunk of serialized data
+   * @return the completed document or null if {@code chunk} was exhausted
+   * before a document was completed
+   * @throws NullPointerException if {@code chunk} is null
+   * @throws IllegalArgumentException if {@code chunk} is not using
+   * little-endian byte ordering or a document's length is invalid
+   * @throws IllegalStateException if an incomplete document is being visited
+   */
+  @CheckForNull
+  BsonDocument decode(ByteBuffer chunk);
+
+  /**
+   * Consumes bytes from {@code chunk} until a document is completed or
+   * {@code chunk} is exhausted and passes every element whose bytes have
+   * arrived to {@code visitor}.
+   * <p>
+   * <b>Note:</b> buffers passed to the visitor are only valid until the
+   * visitor method returns.
+   * </p>
+   * 
+   * @param chunk the next chunk of serialized data
+   * @param visitor the visitor that receives the document's elements
+   * @return <em>true</em> if a document was completed; <em>false</em> if
+   * {@code chunk} was exhausted before that
+   * @throws NullPointerException if {@code chunk} or {@code visitor} is null
+   * @throws IllegalArgumentException if {@code chunk} is not using
+   * little-endian byte ordering or a document's or an element's length is
+   * invalid
+   * @throws IllegalStateException if an incomplete document is being decoded
+   * (not visited)
+   */
+  boolean decode(ByteBuffer chunk, BsonVisitor visitor);
+
+  /**
+   * Returns the number of bytes kept from the incomplete document (or, when
+   * visiting, the incomplete element).
+   * 
+   * @return the number of bytes kept between chunks
+   */
+  int pending();
+}
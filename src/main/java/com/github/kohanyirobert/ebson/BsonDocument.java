@@ -84,6 +84,130 @@ public interface BsonDocument extends Map<String, Object> {
   @Nullable
   <T> T get(Object key, @Nullable Class<T> type);
 
+  /**
+   * Returns the 32-bit integer value associated with {@code key} without boxing it
+   * (if it's stored unboxed).
+   * 
+   * @param key the key whose associated value is to be returned
+   * @return the 32-bit integer value associated with {@code key}
+   * @throws NullPointerException if {@code key} is null
+   * @throws IllegalArgumentException if this document does not contain
+   * {@code key} or if the value associated with it is not a non-null
+   * {@link Integer}
+   * @throws ClassCastException if {@code key} is not a string
+   */
+  int getInt(Object key);
+
+  /**
+   * Returns the 32-bit integer value associated with {@code key} without boxing it
+   * (if it's stored unboxed) or {@code defaultValue} if this document does
+   * not contain {@code key}.
+   * 
+   * @param key the key whose associated value is to be returned
+   * @param defaultValue the value to return if this document does not contain
+   * {@code key}
+   * @return the 32-bit integer value associated with {@code key} or
+   * {@code defaultValue}
+   * @throws NullPointerException if {@code key} is null
+   * @throws IllegalArgumentException if the value associated with {@code key}
+   * is not a non-null {@link Integer}
+   * @throws ClassCastException if {@code key} is not a string
+   */
+  int getInt(Object key, int defaultValue);
+
+  /**
+   * Returns the 64-bit integer value associated with {@code key} without boxing it
+   * (if it's stored unboxed).
+   * 
+   * @param key the key whose associated value is to be returned
+   * @return the 64-bit integer value associated with {@code key}
+   * @throws NullPointerException if {@code key} is null
+   * @throws IllegalArgumentException if this document does not contain
+   * {@code key} or if the value associated with it is not a non-null
+   * {@link Long}
+   * @throws ClassCastException if {@code key} is not a string
+   */
+  long getLong(Object key);
+
+  /**
+   * Returns the 64-bit integer value associated with {@code key} without boxing it
+   * (if it's stored unboxed) or {@code defaultValue} if this document does
+   * not contain {@code key}.
+   * 
+   * @param key the key whose associated value is to be returned
+   * @param defaultValue the value to return if this document does not contain
+   * {@code key}
+   * @return the 64-bit integer value associated with {@code key} or
+   * {@code defaultValue}
+   * @throws NullPointerException if {@code key} is null
+   * @throws IllegalArgumentException if the value associated with {@code key}
+   * is not a non-null {@link Long}
+   * @throws ClassCastException if {@code key} is not a string
+   */
+  long getLong(Object key, long defaultValue);
+
+  /**
+   * Returns the floating point value associated with {@code key} without boxing it
+   * (if it's stored unboxed).
+   * 
+   * @param key the key whose associated value is to be returned
+   * @return the floating point value associated with {@code key}
+   * @throws NullPointerException if {@code key} is null
+   * @throws IllegalArgumentException if this document does not contain
+   * {@code key} or if the value associated with it is not a non-null
+   * {@link Double}
+   * @throws ClassCastException if {@code key} is not a string
+   */
+  double getDouble(Object key);
+
+  /**
+   * Returns the floating point value associated with {@code key} without boxing it
+   * (if it's stored unboxed) or {@code defaultValue} if this document does
+   * not contain {@code key}.
+   * 
+   * @param key the key whose associated value is to be returned
+   * @param defaultValue the value to return if this document does not contain
+   * {@code key}
+   * @return the floating point value associated with {@code key} or
+   * {@code defaultValue}
+   * @throws NullPointerException if {@code key} is null
+   * @throws IllegalArgumentException if the value associated with {@code key}
+   * is not a non-null {@link Double}
+   * @throws ClassCastException if {@code key} is not a string
+   */
+  double getDouble(Object key, double defaultValue);
+
+  /**
+   * Returns the boolean value associated with {@code key} without boxing it
+   * (if it's stored unboxed).
+   * 
+   * @param key the key whose associated value is to be returned
+   * @return the boolean value associated with {@code key}
+   * @throws NullPointerException if {@code key} is null
+   * @throws IllegalArgumentException if this document does not contain
+   * {@code key} or if the value associated with it is not a non-null
+   * {@link Boolean}
+   * @throws ClassCastException if {@code key} is not a string
+   */
+  boolean getBoolean(Object key);
+
+  /**
+   * Returns the boolean value associated with {@code key} without boxing it
+   * (if it's stored unboxed) or {@code defaultValue} if this document does
+   * not contain {@code key}.
+   * 
+   * @param key the key whose associated value is to be returned
+   * @param defaultValue the value to return if this document does not contain
+   * {@code key}
+   * @return the boolean value associated with {@code key} or
+   * {@code defaultValue}
+   * @throws NullPointerException if {@code key} is null
+   * @throws IllegalArgumentException if the value associated with {@code key}
+   * is not a non-null {@link Boolean}
+   * @throws ClassCastException if {@code key} is not a string
+   */
+  boolean getBoolean(Object key, boolean defaultValue);
+
   /**
    * Returns the value associated with {@code key}.
    * 
@@ -1,6 +1,19 @@
 package com.github.kohanyirobert.ebson;
 
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
 
 import javax.annotation.Nullable;
@@ -10,6 +23,10 @@ import javax.annotation.Nullable;
  */
 public final class BsonDocuments {
 
+  // the maximum length of a MongoDB document and the length of the empty one
+  static final int MAX_DOCUMENT_LENGTH = 16 * 1024 * 1024;
+  static final int MIN_DOCUMENT_LENGTH = Ints.BYTES + 1;
+
   private BsonDocuments() {}
 
   /**
@@ -25,6 +42,368 @@ public final class BsonDocuments {
     return (BsonDocument) BsonToken.DOCUMENT.reader().readFrom(buffer);
   }
 
+  /**
+   * Reads a new document from {@code buffer} containing only the elements
+   * selected by {@code projection}.
+   * <p>
+   * Elements that are not selected are skipped using their length prefixes or
+   * fixed sizes without being decoded. {@code buffer}'s position is advanced
+   * past the whole document.
+   * </p>
+   * 
+   * @param buffer the buffer that contains a document's serialized data
+   * @param projection the projection selecting the elements to be read
+   * @return a new document containing the elements of the document in
+   * {@code buffer} selected by {@code projection}
+   * @throws NullPointerException if {@code buffer} or {@code projection} is
+   * null
+   * @throws IllegalArgumentException if {@code buffer} is not using
+   * little-endian byte ordering
+   */
+  public static BsonDocument readFrom(ByteBuffer buffer, BsonProjection projection) {
+    Preconditions.checkNotNull(buffer, "null buffer");
+    Preconditions.checkNotNull(projection, "null projection");
+    Preconditions.checkArgument(buffer.order() == ByteOrder.LITTLE_ENDIAN,
+        "buffer has big-endian byte order; expected little-endian");
+    DefaultProjection defaultProjection = projection instanceof DefaultProjection
+        ? (DefaultProjection) projection
+        : new DefaultProjection(projection.paths());
+    return defaultProjection.readFrom(buffer);
+  }
+
+  /**
+   * Returns a new {@linkplain BsonProjection projection} of {@code paths}.
+   * 
+   * @param paths the dotted paths to be selected by the new projection
+   * @return a new projection of {@code paths}
+   * @throws NullPointerException if {@code paths} or any of its elements are
+   * null
+   * @throws IllegalArgumentException if any of {@code paths} contains an empty
+   * key
+   */
+  public static BsonProjection projection(String... paths) {
+    return new DefaultProjection(Arrays.asList(paths));
+  }
+
+  /**
+   * Reads a new lazily decoded document from {@code buffer}.
+   * <p>
+   * The returned document keeps a slice of {@code buffer} and decodes a
+   * value (or an embedded document's values) only when it is first accessed.
+   * {@code buffer}'s position is advanced past the document just like
+   * {@linkplain #readFrom(ByteBuffer) reading it eagerly} would.
+   * </p>
+   * <p>
+   * <b>Note:</b> the contents of {@code buffer} must not be modified while the
+   * returned document is in use.
+   * </p>
+   * 
+   * @param buffer the buffer that contains a document's serialized data
+   * @return a new lazily decoded document from {@code buffer}
+   * @throws NullPointerException if {@code buffer} is null
+   * @throws IllegalArgumentException if {@code buffer} is not using
+   * little-endian byte ordering
+   * @throws BufferUnderflowException if {@code buffer} does not contain the
+   * whole document
+   */
+  public static BsonRawDocument readLazilyFrom(ByteBuffer buffer) {
+    Preconditions.checkNotNull(buffer, "null buffer");
+    Preconditions.checkArgument(buffer.order() == ByteOrder.LITTLE_ENDIAN,
+        "buffer has big-endian byte order; expected little-endian");
+    int documentLength = buffer.getInt(buffer.position());
+    if (documentLength > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    ByteBuffer document = buffer.duplicate();
+    document.limit(document.position() + documentLength);
+    buffer.position(document.limit());
+    return new LazyDocument(document.slice());
+  }
+
+  /**
+   * Returns a {@linkplain BsonRawDocument raw document} equal to
+   * {@code document}.
+   * <p>
+   * <b>Note:</b> if {@code document} is already a raw document it is returned
+   * as is, otherwise it is {@linkplain #toByteArray(BsonDocument) serialized}
+   * once and its bytes are decoded lazily.
+   * </p>
+   * 
+   * @param document the document to be copied
+   * @return a raw document equal to {@code document}
+   * @throws NullPointerException if {@code document} is null
+   */
+  public static BsonRawDocument rawCopyOf(BsonDocument document) {
+    Preconditions.checkNotNull(document, "null document");
+    if (document instanceof BsonRawDocument) {
+      return (BsonRawDocument) document;
+    }
+    return new LazyDocument(ByteBuffer.wrap(toByteArray(document)).order(ByteOrder.LITTLE_ENDIAN));
+  }
+
+  /**
+   * Checks whether the bytes starting at {@code buffer}'s current position form
+   * a well-formed document without reading it.
+   * <p>
+   * Length prefixes, terminators, element types, string lengths, UTF-8
+   * encoding and the nesting depth (at most 100 levels) of embedded documents
+   * are checked. {@code buffer}'s position is left unchanged and nothing is
+   * allocated unless the document is invalid.
+   * </p>
+   * 
+   * @param buffer the buffer that contains a document's serialized data
+   * @return the outcome of the validation
+   * @throws NullPointerException if {@code buffer} is null
+   * @throws IllegalArgumentException if {@code buffer} is not using
+   * little-endian byte ordering
+   */
+  public static BsonValidation validate(ByteBuffer buffer) {
+    Preconditions.checkNotNull(buffer, "null buffer");
+    Preconditions.checkArgument(buffer.order() == ByteOrder.LITTLE_ENDIAN,
+        "buffer has big-endian byte order; expected little-endian");
+    return DocumentValidator.validate(buffer);
+  }
+
+  /**
+   * Returns the sort key of the value at {@code path} in the document starting
+   * at {@code buffer}'s current position.
+   * <p>
+   * Sort keys of values compare (as unsigned bytes, lexicographically) the same
+   * way as the values themselves do in MongoDB's cross-type comparison order:
+   * numbers of any type compare by value, strings by their UTF-8 bytes,
+   * documents element by element, and values of different types by type
+   * (e.g. numbers before strings and strings before documents).
+   * </p>
+   * <p>
+   * <b>Notes:</b>
+   * <ul>
+   * <li>{@code path} is a dot separated list of keys, array elements are
+   * selected by their index, missing values sort as null.</li>
+   * <li>{@code buffer}'s position is left unchanged.</li>
+   * </ul>
+   * </p>
+   * 
+   * @param buffer the buffer that contains a document's serialized data
+   * @param path the path of the value whose sort key is returned
+   * @return the sort key of the value at {@code path}
+   * @throws NullPointerException if {@code buffer} or {@code path} is null
+   * @throws IllegalArgumentException if {@code buffer} is not using
+   * little-endian byte ordering
+   */
+  public static byte[] sortKey(ByteBuffer buffer, String path) {
+    Preconditions.checkNotNull(buffer, "null buffer");
+    Preconditions.checkNotNull(path, "null path");
+    Preconditions.checkArgument(buffer.order() == ByteOrder.LITTLE_ENDIAN,
+        "buffer has big-endian byte order; expected little-endian");
+    return SortKeyEncoder.encode(buffer, path);
+  }
+
+  /**
+   * Returns a 64-bit hash of the document starting at {@code buffer}'s current
+   * position computed from its serialized bytes.
+   * <p>
+   * <b>Note:</b> documents that are {@linkplain #rawEquals(ByteBuffer,
+   * ByteBuffer) equal byte-by-byte} have equal hashes. {@code buffer}'s
+   * position is left unchanged and nothing is allocated.
+   * </p>
+   * 
+   * @param buffer the buffer that contains a document's serialized data
+   * @return the hash of the document
+   * @throws NullPointerException if {@code buffer} is null
+   * @throws IllegalArgumentException if {@code buffer} is not using
+   * little-endian byte ordering
+   */
+  public static long contentHash(ByteBuffer buffer) {
+    return contentHash(buffer, false);
+  }
+
+  /**
+   * Returns a 64-bit hash of the document starting at {@code buffer}'s current
+   * position computed from its serialized bytes, optionally ignoring the order
+   * of the fields of the document and its embedded documents.
+   * <p>
+   * <b>Note:</b> documents that are {@linkplain #rawEquals(ByteBuffer,
+   * ByteBuffer, boolean) equal} (with the same {@code ignoreFieldOrder}) have
+   * equal hashes. {@code buffer}'s position is left unchanged and nothing is
+   * allocated.
+   * </p>
+   * 
+   * @param buffer the buffer that contains a document's serialized data
+   * @param ignoreFieldOrder whether the order of fields is to be ignored
+   * (array elements are always hashed in order)
+   * @return the hash of the document
+   * @throws NullPointerException if {@code buffer} is null
+   * @throws IllegalArgumentException if {@code buffer} is not using
+   * little-endian byte ordering
+   */
+  public static long contentHash(ByteBuffer buffer, boolean ignoreFieldOrder) {
+    Preconditions.checkNotNull(buffer, "null buffer");
+    Preconditions.checkArgument(buffer.order() == ByteOrder.LITTLE_ENDIAN,
+        "buffer has big-endian byte order; expected little-endian");
+    return RawDocuments.hash(buffer, buffer.position(), ignoreFieldOrder);
+  }
+
+  /**
+   * Returns <em>true</em> if the documents starting at {@code buffer}'s and
+   * {@code other}'s current positions are serialized into the same bytes;
+   * <em>false</em> otherwise.
+   * <p>
+   * <b>Note:</b> the buffers' positions are left unchanged and nothing is
+   * allocated.
+   * </p>
+   * 
+   * @param buffer the buffer that contains a document's serialized data
+   * @param other the buffer that contains the other document's serialized data
+   * @return <em>true</em> if the documents' bytes are equal; <em>false</em>
+   * otherwise
+   * @throws NullPointerException if {@code buffer} or {@code other} is null
+   * @throws IllegalArgumentException if either buffer is not using
+   * little-endian byte ordering
+   */
+  public static boolean rawEquals(ByteBuffer buffer, ByteBuffer other) {
+    return rawEquals(buffer, other, false);
+  }
+
+  /**
+   * Returns <em>true</em> if the documents starting at {@code buffer}'s and
+   * {@code other}'s current positions are equal, optionally ignoring the order
+   * of the fields of the documents and their embedded documents;
+   * <em>false</em> otherwise.
+   * <p>
+   * <b>Note:</b> values (other than documents and arrays) are compared by
+   * their serialized bytes. The buffers' positions are left unchanged and
+   * nothing is allocated.
+   * </p>
+   * 
+   * @param buffer the buffer that contains a document's serialized data
+   * @param other the buffer that contains the other document's serialized data
+   * @param ignoreFieldOrder whether the order of fields is to be ignored
+   * (array elements are always compared in order)
+   * @return <em>true</em> if the documents are equal; <em>false</em> otherwise
+   * @throws NullPointerException if {@code buffer} or {@code other} is null
+   * @throws IllegalArgumentException if either buffer is not using
+   * little-endian byte ordering
+   */
+  public static boolean rawEquals(ByteBuffer buffer, ByteBuffer other, boolean ignoreFieldOrder) {
+    Preconditions.checkNotNull(buffer, "null buffer");
+    Preconditions.checkNotNull(other, "null other");
+    Preconditions.checkArgument(buffer.order() == ByteOrder.LITTLE_ENDIAN && other.order() == ByteOrder.LITTLE_ENDIAN,
+        "buffer has big-endian byte order; expected little-endian");
+    return RawDocuments.equals(buffer, buffer.position(), other, other.position(), ignoreFieldOrder);
+  }
+
+  /**
+   * Returns a new {@linkplain BsonStreamReader stream reader} over the document
+   * starting at {@code buffer}'s current position.
+   * <p>
+   * <b>Note:</b> {@code buffer}'s position is changed while the document is
+   * being read and it is positioned right after the document once its
+   * outermost document is {@linkplain BsonStreamReader#exitDocument exited}.
+   * </p>
+   * 
+   * @param buffer the buffer that contains a document's serialized data
+   * @return a new stream reader over the document in {@code buffer}
+   * @throws NullPointerException if {@code buffer} is null
+   * @throws IllegalArgumentException if {@code buffer} is not using
+   * little-endian byte ordering
+   */
+  public static BsonStreamReader streamReader(ByteBuffer buffer) {
+    Preconditions.checkNotNull(buffer, "null buffer");
+    Preconditions.checkArgument(buffer.order() == ByteOrder.LITTLE_ENDIAN,
+        "buffer has big-endian byte order; expected little-endian");
+    return new DefaultStreamReader(buffer);
+  }
+
+  /**
+   * Reads the document starting at {@code buffer}'s current position in a
+   * single pass and passes its elements to {@code visitor}.
+   * <p>
+   * <b>Note:</b> {@code buffer} is positioned right after the document once
+   * every element was visited.
+   * </p>
+   * 
+   * @param buffer the buffer that contains a document's serialized data
+   * @param visitor the visitor that receives the document's elements
+   * @throws NullPointerException if {@code buffer} or {@code visitor} is null
+   * @throws IllegalArgumentException if {@code buffer} is not using
+   * little-endian byte ordering
+   */
+  public static void visit(ByteBuffer buffer, BsonVisitor visitor) {
+    Preconditions.checkNotNull(buffer, "null buffer");
+    Preconditions.checkNotNull(visitor, "null visitor");
+    Preconditions.checkArgument(buffer.order() == ByteOrder.LITTLE_ENDIAN,
+        "buffer has big-endian byte order; expected little-endian");
+    new DocumentWalker().walk(buffer, visitor);
+  }
+
+  /**
+   * Returns a new {@linkplain BsonDecoder decoder} that accepts documents of
+   * up to 16 MiB (the maximum size of a MongoDB document).
+   * 
+   * @return a new decoder
+   */
+  public static BsonDecoder decoder() {
+    return decoder(MAX_DOCUMENT_LENGTH);
+  }
+
+  /**
+   * Returns a new {@linkplain BsonDecoder decoder} that accepts documents of
+   * up to {@code maxDocumentLength} bytes.
+   * 
+   * @param maxDocumentLength the maximum length of the documents accepted by
+   * the new decoder
+   * @return a new decoder
+   * @throws IllegalArgumentException if {@code maxDocumentLength} is less than
+   * the length of the empty document
+   */
+  public static BsonDecoder decoder(int maxDocumentLength) {
+    Preconditions.checkArgument(maxDocumentLength >= MIN_DOCUMENT_LENGTH,
+        "maximum document length: '%s' is less than '%s'",
+        Integer.valueOf(maxDocumentLength), Integer.valueOf(MIN_DOCUMENT_LENGTH));
+    return new DefaultDecoder(maxDocumentLength);
+  }
+
+  /**
+   * Returns an iterator over the consecutive documents read from
+   * {@code channel} (e.g. a file created by <em>mongodump</em>).
+   * <p>
+   * <b>Notes:</b>
+   * <ul>
+   * <li>{@code channel} is read in large chunks into a reused buffer and only
+   * one document is held in memory at a time, closing it remains the
+   * responsibility of the caller.</li>
+   * <li>An {@link java.io.IOException} thrown by {@code channel} is propagated
+   * wrapped in a {@link RuntimeException}; a truncated last document causes a
+   * {@link BufferUnderflowException}.</li>
+   * </ul>
+   * </p>
+   * 
+   * @param channel the channel to read documents from
+   * @return an iterator over the documents read from {@code channel}
+   * @throws NullPointerException if {@code channel} is null
+   * @throws IllegalArgumentException if {@code channel} is a selectable
+   * channel in non-blocking mode
+   */
+  public static Iterator<BsonDocument> stream(ReadableByteChannel channel) {
+    Preconditions.checkNotNull(channel, "null channel");
+    ChannelIterator.checkBlocking(channel);
+    return new ChannelIterator(channel, MAX_DOCUMENT_LENGTH);
+  }
+
+  /**
+   * Returns an iterator over the consecutive documents read from
+   * {@code stream}.
+   * 
+   * @param stream the stream to read documents from
+   * @return an iterator over the documents read from {@code stream}
+   * @throws NullPointerException if {@code stream} is null
+   * @see #stream(ReadableByteChannel)
+   */
+  public static Iterator<BsonDocument> stream(InputStream stream) {
+    Preconditions.checkNotNull(stream, "null stream");
+    return stream(Channels.newChannel(stream));
+  }
+
   /**
    * Writes {@code document} to {@code buffer}.
    * 
@@ -38,6 +417,75 @@ public final class BsonDocuments {
     BsonToken.DOCUMENT.writer().writeTo(buffer, document);
   }
   
+  /**
+   * Returns {@code document}'s serialized bytes.
+   * <p>
+   * <b>Note:</b> unlike {@linkplain #writeTo(ByteBuffer, BsonDocument) writing
+   * into a buffer} this method does not require {@code document}'s
+   * {@linkplain #binarySize binary size} to be known in advance. It encodes
+   * {@code document} in a single pass into a reused per-thread buffer; only
+   * documents that don't fit it are sized and encoded again, into a buffer of
+   * exactly their size (which is retained for later documents of up to 16
+   * MiB).
+   * </p>
+   * 
+   * @param document the document to be serialized
+   * @return {@code document}'s serialized bytes
+   * @throws NullPointerException if {@code document} is null
+   */
+  public static byte[] toByteArray(BsonDocument document) {
+    Preconditions.checkNotNull(document, "null document");
+    EncodingBuffer encodingBuffer = EncodingBuffer.encode(BsonToken.DOCUMENT.writer(), document);
+    try {
+      ByteBuffer bytes = encodingBuffer.bytes();
+      byte[] array = new byte[bytes.remaining()];
+      bytes.get(array);
+      return array;
+    } finally {
+      encodingBuffer.release();
+    }
+  }
+
+  /**
+   * Writes {@code document} to {@code channel}.
+   * <p>
+   * <b>Note:</b> {@code document} is encoded the same way as
+   * {@linkplain #toByteArray(BsonDocument) serializing it into bytes}.
+   * </p>
+   * 
+   * @param channel the channel to write to
+   * @param document the document to be written into {@code channel}
+   * @throws NullPointerException if {@code channel} or {@code document} is null
+   * @throws IOException if an I/O error occurs
+   */
+  public static void writeTo(WritableByteChannel channel, BsonDocument document) throws IOException {
+    Preconditions.checkNotNull(channel, "null channel");
+    Preconditions.checkNotNull(document, "null document");
+    EncodingBuffer encodingBuffer = EncodingBuffer.encode(BsonToken.DOCUMENT.writer(), document);
+    try {
+      ByteBuffer bytes = encodingBuffer.bytes();
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+    } finally {
+      encodingBuffer.release();
+    }
+  }
+
+  /**
+   * Writes {@code document} to {@code stream}.
+   * 
+   * @param stream the stream to write to
+   * @param document the document to be written into {@code stream}
+   * @throws NullPointerException if {@code stream} or {@code document} is null
+   * @throws IOException if an I/O error occurs
+   * @see #writeTo(WritableByteChannel, BsonDocument)
+   */
+  public static void writeTo(OutputStream stream, BsonDocument document) throws IOException {
+    Preconditions.checkNotNull(stream, "null stream");
+    writeTo(Channels.newChannel(stream), document);
+  }
+
   /**
    * Returns the binary size of the document. This is needed to allocate a
    * ByteBuffer that is exactly the correct size.
@@ -0,0 +1,147 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Utility class for working with files of consecutive serialized
+ * {@linkplain BsonDocument documents} (e.g. files created by
+ * <em>mongodump</em>).
+ */
+public final class BsonFiles {
+
+  private BsonFiles() {}
+
+  /**
+   * Splits the documents of {@code channel} into at most {@code parts}
+   * memory-mapped segments of roughly equal size.
+   * <p>
+   * <b>Notes:</b>
+   * <ul>
+   * <li>Segments start and end at document boundaries found by walking the
+   * documents' length prefixes, so each of them can be decoded independently
+   * (e.g. by a different thread).</li>
+   * <li>Segments map {@code channel} in windows of up to 256 MiB when they are
+   * iterated over and they can be iterated over any number of times while
+   * {@code channel} is open.</li>
+   * <li>An {@link IOException} thrown while iterating is propagated wrapped in
+   * a {@link RuntimeException}.</li>
+   * </ul>
+   * </p>
+   * 
+   * @param channel the channel of the file to split
+   * @param parts the maximum number of segments
+   * @return the segments of {@code channel}'s documents in file order
+   * @throws NullPointerException if {@code channel} is null
+   * @throws IllegalArgumentException if {@code parts} is not positive or a
+   * document's length is invalid
+   * @throws IOException if an I/O error occurs
+   */
+  public static List<Iterable<BsonDocument>> split(FileChannel channel, int parts) throws IOException {
+    Preconditions.checkNotNull(channel, "null channel");
+    Preconditions.checkArgument(parts > 0, "parts: '%s' is not positive", Integer.valueOf(parts));
+    return ImmutableList.<Iterable<BsonDocument>>copyOf(MappedSegment.split(channel, parts));
+  }
+
+  /**
+   * Sorts the documents of {@code input} by the value at {@code path} and
+   * writes them into {@code output}.
+   * <p>
+   * <b>Notes:</b>
+   * <ul>
+   * <li>Documents are ordered by their {@linkplain BsonDocuments#sortKey sort
+   * keys}; documents with equal keys keep their original order.</li>
+   * <li>Documents are kept as raw bytes while sorting. When they don't fit in
+   * {@code memoryBudget} bytes, sorted runs are spilled into temporary files
+   * (sorted in parallel, one per available processor) and merged into
+   * {@code output} afterwards. At most 64 runs are merged at once (more are
+   * merged in passes through intermediate files) and their read buffers are
+   * part of {@code memoryBudget} as well.</li>
+   * <li>Neither channel is closed by this method.</li>
+   * </ul>
+   * </p>
+   * 
+   * @param input the channel to read documents from
+   * @param output the channel to write the sorted documents to
+   * @param path the path of the value to sort by
+   * @param memoryBudget the approximate number of bytes of heap that can be
+   * used for holding documents
+   * @throws NullPointerException if {@code input}, {@code output} or
+   * {@code path} is null
+   * @throws IllegalArgumentException if {@code memoryBudget} is not positive
+   * or a document's length is invalid
+   * @throws BufferUnderflowException if {@code input} ends with a partial
+   * document
+   * @throws IOException if an I/O error occurs
+   */
+  public static void sort(ReadableByteChannel input, WritableByteChannel output, String path, long memoryBudget)
+      throws IOException {
+    Preconditions.checkNotNull(input, "null input");
+    Preconditions.checkNotNull(output, "null output");
+    Preconditions.checkNotNull(path, "null path");
+    Preconditions.checkArgument(memoryBudget > 0, "memory budget: '%s' is not positive", Long.valueOf(memoryBudget));
+    new ExternalSorter(input, path, memoryBudget).sortTo(output);
+  }
+
+  /**
+   * Writes an index of {@code data}'s documents by the value at {@code path}
+   * into {@code index}.
+   * <p>
+   * <b>Notes:</b>
+   * <ul>
+   * <li>The index contains the documents' {@linkplain BsonDocuments#sortKey
+   * sort keys} and file offsets sorted by key, keys are stored with their
+   * own length (not padded to the longest one) and located through a table
+   * of their offsets, it can be {@linkplain #openIndex opened} for lookups
+   * afterwards.</li>
+   * <li>{@code data} is scanned once through memory-mapped windows and the
+   * keys and offsets of every document are held in memory until they are
+   * written.</li>
+   * <li>Neither channel is closed by this method.</li>
+   * </ul>
+   * </p>
+   * 
+   * @param data the channel of the file to index
+   * @param index the channel to write the index to
+   * @param path the path of the value to index (e.g. {@code _id})
+   * @throws NullPointerException if {@code data}, {@code index} or
+   * {@code path} is null
+   * @throws IllegalArgumentException if a document's length is invalid
+   * @throws IOException if an I/O error occurs
+   */
+  public static void index(FileChannel data, WritableByteChannel index, String path) throws IOException {
+    Preconditions.checkNotNull(data, "null data");
+    Preconditions.checkNotNull(index, "null index");
+    Preconditions.checkNotNull(path, "null path");
+    MappedIndex.build(data, index, path);
+  }
+
+  /**
+   * Opens the {@linkplain #index index} of {@code data} for lookups.
+   * <p>
+   * <b>Note:</b> both files are memory-mapped, a lookup is a binary search in
+   * the index followed by reading the matching document from {@code data}.
+   * The returned index can be used after the channels are closed, but the
+   * files must not be modified while it is in use.
+   * </p>
+   * 
+   * @param data the channel of the indexed file
+   * @param index the channel of the index
+   * @return the opened index
+   * @throws NullPointerException if {@code data} or {@code index} is null
+   * @throws IllegalArgumentException if {@code index} is not a valid index
+   * @throws IOException if an I/O error occurs
+   */
+  public static BsonIndex openIndex(FileChannel data, FileChannel index) throws IOException {
+    Preconditions.checkNotNull(data, "null data");
+    Preconditions.checkNotNull(index, "null index");
+    return MappedIndex.open(data, index);
+  }
+}
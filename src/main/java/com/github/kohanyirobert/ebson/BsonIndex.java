@@ -0,0 +1,50 @@
+package com.github.kohanyirobert.ebson;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Memory-mapped index of a file of consecutive serialized
+ * {@linkplain BsonDocument documents} by the value at a path.
+ * <p>
+ * <b>Notes:</b>
+ * <ul>
+ * <li>Indexes are built and opened by the {@linkplain BsonFiles files utility
+ * class} and they are thread-safe.</li>
+ * <li>Keys are matched by their {@linkplain BsonDocuments#sortKey sort keys},
+ * so numbers of different types match if their values are equal.</li>
+ * </ul>
+ * </p>
+ */
+public interface BsonIndex {
+
+  /**
+   * Returns the number of indexed documents.
+   * 
+   * @return the number of indexed documents
+   */
+  long size();
+
+  /**
+   * Returns the file offset of the first document whose indexed value equals
+   * {@code key} or -1 if there is no such document.
+   * 
+   * @param key the value to look up (null matches documents where the value
+   * is null or missing)
+   * @return the file offset of the first matching document or -1
+   * @throws IllegalArgumentException if {@code key} cannot be serialized
+   */
+  long offset(@Nullable Object key);
+
+  /**
+   * Returns the first document whose indexed value equals {@code key} or null
+   * if there is no such document.
+   * 
+   * @param key the value to look up (null matches documents where the value
+   * is null or missing)
+   * @return the first matching document or null
+   * @throws IllegalArgumentException if {@code key} cannot be serialized
+   */
+  @CheckForNull
+  BsonDocument get(@Nullable Object key);
+}
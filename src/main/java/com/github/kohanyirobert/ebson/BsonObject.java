@@ -1,8 +1,14 @@
 package com.github.kohanyirobert.ebson;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+
+import java.nio.ByteBuffer;
 
 import javax.annotation.Nullable;
 
@@ -36,7 +42,8 @@ public enum BsonObject {
    * Special embedded {@linkplain #EMBEDDED document}.
    * <p>
    * <b>Note:</b> an array is a document whose keys are integer values starting
-   * with 0 and continuing sequentially.
+   * with 0 and continuing sequentially; arrays are read as
+   * {@linkplain BsonArray lists}.
    * </p>
    */
   ARRAY(BsonBytes.ARRAY, DefaultPredicate.ARRAY, DefaultReader.ARRAY,
@@ -169,6 +176,18 @@ public enum BsonObject {
    */
   MIN_KEY(BsonBytes.MIN_KEY);
 
+  private static final int OBJECT_ID_BYTES = 12;
+  private static final int TERMINALS = 256;
+
+  private static final BsonObject[] TERMINAL_TABLE = new BsonObject[TERMINALS];
+  private static volatile ClassTable classTable = new ClassTable();
+
+  static {
+    for (BsonObject object : values()) {
+      TERMINAL_TABLE[object.terminal() & (TERMINALS - 1)] = object;
+    }
+  }
+
   private final byte terminal;
 
   private Predicate<Class<?>> predicate;
@@ -216,6 +235,7 @@ public enum BsonObject {
   public void predicate(Predicate<Class<?>> predicate) {
     Preconditions.checkNotNull(predicate, "cannot associate a null predicate with '%s'", this);
     this.predicate = predicate;
+    invalidate();
   }
 
   /**
@@ -236,8 +256,9 @@ public enum BsonObject {
    * @param reader the reader to be associated with this object
    */
   public void reader(BsonReader reader) {
-    Preconditions.checkNotNull(predicate, "cannot associate a null reader with '%s'", this);
+    Preconditions.checkNotNull(reader, "cannot associate a null reader with '%s'", this);
     this.reader = reader;
+    invalidate();
   }
 
   /**
@@ -260,6 +281,51 @@ public enum BsonObject {
   public void writer(BsonWriter writer) {
     Preconditions.checkNotNull(writer, "cannot associate a null writer with '%s'", this);
     this.writer = writer;
+    invalidate();
+  }
+
+  // returns the length of the value starting at 'position' without
+  // changing the buffer's position (all reads are absolute)
+  // @do-not-check-next-line CyclomaticComplexity
+  int valueLength(ByteBuffer buffer, int position) {
+    switch (this) {
+      case UNDEFINED:
+      case NULL:
+      case MAX_KEY:
+      case MIN_KEY:
+        return 0;
+      case BOOLEAN:
+        return 1;
+      case INT32:
+        return Ints.BYTES;
+      case DOUBLE:
+        return Doubles.BYTES;
+      case UTC_DATE_TIME:
+      case TIMESTAMP:
+      case INT64:
+        return Longs.BYTES;
+      case OBJECT_ID:
+        return OBJECT_ID_BYTES;
+      case STRING:
+      case JAVASCRIPT_CODE:
+      case SYMBOL:
+        return Ints.BYTES + buffer.getInt(position);
+      case EMBEDDED:
+      case ARRAY:
+      case JAVASCRIPT_CODE_WITH_SCOPE:
+        return buffer.getInt(position);
+      case BINARY:
+        return Ints.BYTES + 1 + buffer.getInt(position);
+      case DB_POINTER:
+        return Ints.BYTES + buffer.getInt(position) + OBJECT_ID_BYTES;
+      case REGULAR_EXPRESSION:
+        int end = position;
+        while (buffer.get(end++) != BsonBytes.EOO) {}
+        while (buffer.get(end++) != BsonBytes.EOO) {}
+        return end - position;
+      default:
+        throw new AssertionError(this);
+    }
   }
 
   /**
@@ -271,13 +337,12 @@ public enum BsonObject {
    * was found
    */
   public static BsonObject find(@Nullable Class<?> clazz) {
-    for (BsonObject object : values()) {
-      if (object.predicate().apply(clazz)) {
-        return object;
-      }
+    BsonObject object = lookup(clazz);
+    if (object == null) {
+      throw new IllegalArgumentException(String.format("no object "
+          + "representing the '%s' type value was found", clazz));
     }
-    throw new IllegalArgumentException(String.format("no object "
-        + "representing the '%s' type value was found", clazz));
+    return object;
   }
 
   /**
@@ -289,12 +354,53 @@ public enum BsonObject {
    * was found
    */
   public static BsonObject find(byte terminal) {
+    BsonObject object = lookup(terminal);
+    if (object == null) {
+      throw new IllegalArgumentException(String.format("no object representing "
+          + "the '%s' terminal value was found", Byte.valueOf(terminal)));
+    }
+    return object;
+  }
+
+  // returns the object representing 'clazz' or null if there is none; the
+  // result is cached per class until a predicate, reader or writer changes
+  @Nullable
+  static BsonObject lookup(@Nullable Class<?> clazz) {
+    return classTable.lookup(clazz);
+  }
+
+  // returns the object representing 'terminal' or null if there is none
+  @Nullable
+  static BsonObject lookup(byte terminal) {
+    return TERMINAL_TABLE[terminal & (TERMINALS - 1)];
+  }
+
+  static void invalidate() {
+    classTable = new ClassTable();
+  }
+
+  @Nullable
+  private static BsonObject scan(@Nullable Class<?> clazz) {
     for (BsonObject object : values()) {
-      if (object.terminal() - terminal == 0) {
+      if (object.predicate().apply(clazz)) {
         return object;
       }
     }
-    throw new IllegalArgumentException(String.format("no object representing "
-        + "the '%s' terminal value was found", Byte.valueOf(terminal)));
+    return null;
+  }
+
+  private static final class ClassTable extends ClassValue<Optional<BsonObject>> {
+
+    private final Optional<BsonObject> nullObject = Optional.fromNullable(scan(null));
+
+    @Override
+    protected Optional<BsonObject> computeValue(Class<?> type) {
+      return Optional.fromNullable(scan(type));
+    }
+
+    @Nullable
+    BsonObject lookup(@Nullable Class<?> clazz) {
+      return (clazz == null ? nullObject : get(clazz)).orNull();
+    }
   }
 }
@@ -0,0 +1,248 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Preconditions;
+
+import java.lang.management.ManagementFactory;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utility class for generating new {@linkplain BsonObjectId object ids} and
+ * reading their parts.
+ * <p>
+ * <b>Notes:</b>
+ * <ul>
+ * <li>Object ids consist of the current time (in seconds), a machine and a
+ * process identifier (both computed once) and a counter.</li>
+ * <li>Threads reserve blocks of counter values from a shared atomic counter,
+ * so generating object ids concurrently does not require locking and hardly
+ * ever contends. A block is only used during the second it was reserved
+ * in.</li>
+ * </ul>
+ * </p>
+ */
+public final class BsonObjectIds {
+
+  private static final int COUNTER_MASK = 0xffffff;
+  private static final int MAX_BATCH_SIZE = COUNTER_MASK + 1;
+  private static final int BLOCK_SIZE = 256;
+
+  private static final AtomicInteger COUNTER = new AtomicInteger(new SecureRandom().nextInt());
+  private static final ThreadLocal<Block> BLOCK = new ThreadLocal<Block>() {
+
+    @Override
+    protected Block initialValue() {
+      return new Block();
+    }
+  };
+
+  // both identifiers are stored little-endian
+  private static final int PROCESS_IDENTIFIER = processIdentifier() & 0xffff;
+  // the machine identifier and the low byte of the process identifier
+  private static final long MACHINE_AND_PROCESS = (Integer.reverseBytes(machineIdentifier())
+                                                  | PROCESS_IDENTIFIER & 0xff) & 0xffffffffL;
+  // the high byte of the process identifier
+  private static final int PROCESS = PROCESS_IDENTIFIER >>> Byte.SIZE << 3 * Byte.SIZE;
+
+  /**
+   * Orders object ids by their bytes compared as unsigned numbers, that is by
+   * time first.
+   */
+  public static final Comparator<BsonObjectId> COMPARATOR = new Comparator<BsonObjectId>() {
+
+    @Override
+    public int compare(BsonObjectId left, BsonObjectId right) {
+      return BasicObjectId.of(left).compareTo(right);
+    }
+  };
+
+  private BsonObjectIds() {}
+
+  /**
+   * Returns the time (in seconds since the epoch) {@code objectId} was
+   * generated at.
+   * 
+   * @param objectId the object id
+   * @return the time part of {@code objectId} as an unsigned number
+   * @throws NullPointerException if {@code objectId} is null
+   */
+  public static int timestampSeconds(BsonObjectId objectId) {
+    return BasicObjectId.of(objectId).timestampSeconds();
+  }
+
+  /**
+   * Returns the identifier of the machine that generated {@code objectId}.
+   * 
+   * @param objectId the object id
+   * @return the machine identifier part (three little-endian bytes) of
+   * {@code objectId}
+   * @throws NullPointerException if {@code objectId} is null
+   */
+  public static int machineIdentifier(BsonObjectId objectId) {
+    return BasicObjectId.of(objectId).machineIdentifier();
+  }
+
+  /**
+   * Returns the identifier of the process that generated {@code objectId}.
+   * 
+   * @param objectId the object id
+   * @return the process identifier part (two little-endian bytes) of
+   * {@code objectId}
+   * @throws NullPointerException if {@code objectId} is null
+   */
+  public static short processIdentifier(BsonObjectId objectId) {
+    return BasicObjectId.of(objectId).processIdentifier();
+  }
+
+  /**
+   * Returns the counter value of {@code objectId}.
+   * 
+   * @param objectId the object id
+   * @return the counter part (three big-endian bytes) of {@code objectId}
+   * @throws NullPointerException if {@code objectId} is null
+   */
+  public static int counter(BsonObjectId objectId) {
+    return BasicObjectId.of(objectId).counter();
+  }
+
+  /**
+   * Returns a new object id.
+   * 
+   * @return a new object id
+   */
+  public static BsonObjectId next() {
+    long seconds = seconds();
+    return new BasicObjectId(high(seconds), low(BLOCK.get().next(seconds)));
+  }
+
+  /**
+   * Fills {@code objectIds} with new object ids.
+   * <p>
+   * <b>Note:</b> the counter values of the new object ids are reserved at once
+   * and they are consecutive.
+   * </p>
+   * 
+   * @param objectIds the array to fill
+   * @throws NullPointerException if {@code objectIds} is null
+   * @throws IllegalArgumentException if {@code objectIds} is longer than the
+   * number of distinct counter values (2<sup>24</sup>)
+   */
+  public static void next(BsonObjectId[] objectIds) {
+    Preconditions.checkNotNull(objectIds, "null object ids");
+    checkBatchSize(objectIds.length);
+    long high = high(seconds());
+    int counter = COUNTER.getAndAdd(objectIds.length);
+    for (int i = 0; i < objectIds.length; i++) {
+      objectIds[i] = new BasicObjectId(high, low(counter + i));
+    }
+  }
+
+  /**
+   * Writes {@code count} new serialized object ids (twelve bytes each) into
+   * {@code buffer} starting at its current position.
+   * 
+   * @param buffer the buffer to write the object ids into
+   * @param count the number of object ids to write
+   * @throws NullPointerException if {@code buffer} is null
+   * @throws IllegalArgumentException if {@code count} is negative or greater
+   * than the number of distinct counter values (2<sup>24</sup>)
+   * @throws java.nio.BufferOverflowException if {@code buffer} does not have
+   * room for {@code count} object ids
+   */
+  public static void next(ByteBuffer buffer, int count) {
+    Preconditions.checkNotNull(buffer, "null buffer");
+    Preconditions.checkArgument(count >= 0, "count: '%s' is negative", Integer.valueOf(count));
+    checkBatchSize(count);
+    if (buffer.remaining() < (long) count * BasicObjectId.OBJECT_ID_LENGTH) {
+      throw new BufferOverflowException();
+    }
+    boolean littleEndian = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+    long high = high(seconds());
+    int counter = COUNTER.getAndAdd(count);
+    for (int i = 0; i < count; i++) {
+      int low = low(counter + i);
+      if (littleEndian) {
+        buffer.putLong(Long.reverseBytes(high)).putInt(Integer.reverseBytes(low));
+      } else {
+        buffer.putLong(high).putInt(low);
+      }
+    }
+  }
+
+  // larger batches would repeat counter values within the same second
+  private static void checkBatchSize(int size) {
+    Preconditions.checkArgument(size <= MAX_BATCH_SIZE,
+        "batch size: '%s' is greater than '%s'", Integer.valueOf(size), Integer.valueOf(MAX_BATCH_SIZE));
+  }
+
+  private static long seconds() {
+    return System.currentTimeMillis() / 1000;
+  }
+
+  private static long high(long seconds) {
+    return seconds << Integer.SIZE | MACHINE_AND_PROCESS;
+  }
+
+  private static int low(int counter) {
+    return PROCESS | counter & COUNTER_MASK;
+  }
+
+  // the machine's hardware addresses hashed into three bytes, random if they
+  // are not available
+  private static int machineIdentifier() {
+    int hash = 0;
+    try {
+      Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+      while (interfaces != null && interfaces.hasMoreElements()) {
+        byte[] address = interfaces.nextElement().getHardwareAddress();
+        if (address != null) {
+          hash = 31 * hash + Arrays.hashCode(address);
+        }
+      }
+    } catch (SocketException e) {
+      hash = 0;
+    }
+    if (hash == 0) {
+      hash = new SecureRandom().nextInt();
+    }
+    return hash & 0xffffff;
+  }
+
+  // the process id (from the runtime's 'pid@host' name) or a random number
+  private static short processIdentifier() {
+    String name = ManagementFactory.getRuntimeMXBean().getName();
+    int at = name.indexOf('@');
+    try {
+      return (short) Integer.parseInt(at == -1 ? name : name.substring(0, at));
+    } catch (NumberFormatException e) {
+      return (short) new SecureRandom().nextInt();
+    }
+  }
+
+  // a block left unused for a while could otherwise hand out counter values
+  // the shared counter has since wrapped around to and given out again, so
+  // it's discarded once the second it was reserved in is over
+  private static final class Block {
+
+    private long seconds = -1;
+    private int next;
+    private int end;
+
+    int next(long currentSeconds) {
+      if (next == end || seconds != currentSeconds) {
+        seconds = currentSeconds;
+        next = COUNTER.getAndAdd(BLOCK_SIZE);
+        end = next + BLOCK_SIZE;
+      }
+      return next++;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.github.kohanyirobert.ebson;
+
+import java.util.Set;
+
+/**
+ * Precompiled set of dotted field paths (e.g. {@code meta.tenant} or
+ * {@code items.0.sku}) that selects which parts of a serialized
+ * {@linkplain BsonDocument document} are read.
+ * <p>
+ * <b>Notes:</b>
+ * <ul>
+ * <li>Elements not selected by a projection are skipped without being
+ * decoded.</li>
+ * <li>A path selects its whole subtree, so {@code meta} makes
+ * {@code meta.tenant} redundant.</li>
+ * <li>Embedded documents and arrays that are only partially selected are read
+ * as documents containing the selected elements (array elements are keyed by
+ * their indexes).</li>
+ * <li>Projections can be acquired via the {@linkplain BsonDocuments documents
+ * utility class} and they are immutable.</li>
+ * </ul>
+ * </p>
+ */
+public interface BsonProjection {
+
+  /**
+   * Returns an immutable view of this projection's paths.
+   * 
+   * @return an immutable view of this projection's paths
+   */
+  Set<String> paths();
+}
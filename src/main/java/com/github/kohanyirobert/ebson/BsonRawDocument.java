@@ -0,0 +1,30 @@
+package com.github.kohanyirobert.ebson;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@linkplain BsonDocument Document} backed by its serialized bytes.
+ * <p>
+ * <b>Notes:</b>
+ * <ul>
+ * <li>Raw documents (including embedded ones) are written by copying their
+ * bytes verbatim instead of serializing their entries again.</li>
+ * <li>Use {@link BsonDocuments#readLazilyFrom(ByteBuffer)} or
+ * {@link BsonDocuments#rawCopyOf(BsonDocument)} to create raw documents.</li>
+ * </ul>
+ * </p>
+ */
+public interface BsonRawDocument extends BsonDocument {
+
+  /**
+   * Returns a new little-endian buffer whose contents are this document's
+   * serialized bytes, from its length prefix to its terminating byte.
+   * <p>
+   * <b>Note:</b> the returned buffer shares its contents with this document,
+   * it must not be modified.
+   * </p>
+   * 
+   * @return a new buffer of this document's serialized bytes
+   */
+  ByteBuffer bytes();
+}
@@ -0,0 +1,143 @@
+package com.github.kohanyirobert.ebson;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Forward-only cursor over the elements of a serialized
+ * {@linkplain BsonDocument document}.
+ * <p>
+ * <b>Notes:</b>
+ * <ul>
+ * <li>Stream readers can be acquired via the {@linkplain BsonDocuments
+ * documents utility class}.</li>
+ * <li>Values are read directly from the underlying buffer, no intermediate
+ * documents or boxed primitives are created (except by {@linkplain #value}).
+ * </li>
+ * <li>Stream readers are not thread-safe.</li>
+ * </ul>
+ * </p>
+ */
+public interface BsonStreamReader {
+
+  /**
+   * Moves to the next element of the current document and returns its type.
+   * <p>
+   * <b>Note:</b> the current element's value is skipped if it was not read.
+   * </p>
+   * 
+   * @return the next element's type or null if the end of the current document
+   * was reached
+   * @throws IllegalStateException if the outermost document was already
+   * exited
+   * @throws IllegalArgumentException if the next element's type is unknown
+   */
+  @CheckForNull
+  BsonObject next();
+
+  /**
+   * Returns the current element's key.
+   * 
+   * @return the current element's key
+   * @throws IllegalStateException if there is no current element
+   */
+  String key();
+
+  /**
+   * Returns the current element's {@linkplain BsonObject#INT32 32-bit integer}
+   * value.
+   * 
+   * @return the current element's 32-bit integer value
+   * @throws IllegalStateException if the current element is not a 32-bit
+   * integer
+   */
+  int intValue();
+
+  /**
+   * Returns the current element's {@linkplain BsonObject#INT64 64-bit
+   * integer}, {@linkplain BsonObject#UTC_DATE_TIME UTC date-time} or
+   * {@linkplain BsonObject#TIMESTAMP timestamp} value.
+   * 
+   * @return the current element's 64-bit value
+   * @throws IllegalStateException if the current element is not a 64-bit
+   * integer, a UTC date-time or a timestamp
+   */
+  long longValue();
+
+  /**
+   * Returns the current element's {@linkplain BsonObject#DOUBLE floating
+   * point} value.
+   * 
+   * @return the current element's floating point value
+   * @throws IllegalStateException if the current element is not a floating
+   * point value
+   */
+  double doubleValue();
+
+  /**
+   * Returns the current element's {@linkplain BsonObject#BOOLEAN boolean}
+   * value.
+   * 
+   * @return the current element's boolean value
+   * @throws IllegalStateException if the current element is not a boolean
+   */
+  boolean booleanValue();
+
+  /**
+   * Returns the current element's {@linkplain BsonObject#STRING string},
+   * {@linkplain BsonObject#SYMBOL symbol} or {@linkplain
+   * BsonObject#JAVASCRIPT_CODE JavaScript code} value.
+   * 
+   * @return the current element's string value
+   * @throws IllegalStateException if the current element is not a string, a
+   * symbol or JavaScript code
+   */
+  String stringValue();
+
+  /**
+   * Returns the current element's value read by its type's associated
+   * {@linkplain BsonObject#reader() reader}.
+   * 
+   * @return the current element's value
+   * @throws IllegalStateException if there is no current element or its type
+   * does not have an associated reader
+   */
+  @Nullable
+  Object value();
+
+  /**
+   * Skips the current element's value.
+   * 
+   * @throws IllegalStateException if there is no current element
+   */
+  void skipValue();
+
+  /**
+   * Enters the current element's {@linkplain BsonObject#EMBEDDED embedded
+   * document} or {@linkplain BsonObject#ARRAY array}.
+   * 
+   * @throws IllegalStateException if the current element is neither an
+   * embedded document nor an array
+   */
+  void enterDocument();
+
+  /**
+   * Exits the current document skipping its remaining elements.
+   * <p>
+   * <b>Note:</b> after exiting the outermost document the underlying buffer is
+   * positioned right after it.
+   * </p>
+   * 
+   * @throws IllegalStateException if the outermost document was already
+   * exited
+   */
+  void exitDocument();
+
+  /**
+   * Returns the nesting depth of the current document (the outermost document
+   * is at depth one).
+   * 
+   * @return the nesting depth of the current document
+   */
+  int depth();
+}
@@ -0,0 +1,60 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.primitives.UnsignedLongs;
+
+import java.util.Comparator;
+
+/**
+ * Utility class for reading the parts of {@linkplain BsonTimestamp
+ * timestamps}.
+ */
+public final class BsonTimestamps {
+
+  /**
+   * Orders timestamps by their values compared as unsigned numbers, that is by
+   * time first and by increment second.
+   */
+  public static final Comparator<BsonTimestamp> COMPARATOR = new Comparator<BsonTimestamp>() {
+
+    @Override
+    public int compare(BsonTimestamp left, BsonTimestamp right) {
+      return UnsignedLongs.compare(BasicTimestamp.value(left), BasicTimestamp.value(right));
+    }
+  };
+
+  private BsonTimestamps() {}
+
+  /**
+   * Returns the value of {@code timestamp}, its time in the high and its
+   * increment in the low four bytes.
+   * 
+   * @param timestamp the timestamp
+   * @return the value of {@code timestamp}
+   * @throws NullPointerException if {@code timestamp} is null
+   */
+  public static long value(BsonTimestamp timestamp) {
+    return BasicTimestamp.value(timestamp);
+  }
+
+  /**
+   * Returns the time (in seconds since the epoch) of {@code timestamp}.
+   * 
+   * @param timestamp the timestamp
+   * @return the time part of {@code timestamp} as an unsigned number
+   * @throws NullPointerException if {@code timestamp} is null
+   */
+  public static int timestampSeconds(BsonTimestamp timestamp) {
+    return (int) (BasicTimestamp.value(timestamp) >>> Integer.SIZE);
+  }
+
+  /**
+   * Returns the increment of {@code timestamp}.
+   * 
+   * @param timestamp the timestamp
+   * @return the increment part of {@code timestamp}
+   * @throws NullPointerException if {@code timestamp} is null
+   */
+  public static int counter(BsonTimestamp timestamp) {
+    return (int) BasicTimestamp.value(timestamp);
+  }
+}
@@ -72,7 +72,7 @@ public enum BsonToken {
    * @param writer the writer to be associated with this token
    */
   public void writer(BsonWriter writer) {
-    Preconditions.checkNotNull(reader, "cannot associate a null writer with '%s'", this);
+    Preconditions.checkNotNull(writer, "cannot associate a null writer with '%s'", this);
     this.writer = writer;
   }
 }
@@ -0,0 +1,37 @@
+package com.github.kohanyirobert.ebson;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * Outcome of {@linkplain BsonDocuments#validate(java.nio.ByteBuffer)
+ * validating} a serialized {@linkplain BsonDocument document}.
+ */
+public interface BsonValidation {
+
+  /**
+   * Returns <em>true</em> if the validated bytes form a well-formed document;
+   * <em>false</em> otherwise.
+   * 
+   * @return <em>true</em> if the validated bytes form a well-formed document;
+   * <em>false</em> otherwise
+   */
+  boolean isValid();
+
+  /**
+   * Returns the absolute index (in the validated buffer) of the first invalid
+   * byte or -1 if the document is valid.
+   * 
+   * @return the index of the first invalid byte or -1 if the document is valid
+   */
+  int offset();
+
+  /**
+   * Returns the description of the first problem found or null if the
+   * document is valid.
+   * 
+   * @return the description of the first problem found or null if the
+   * document is valid
+   */
+  @CheckForNull
+  String message();
+}
@@ -0,0 +1,218 @@
+package com.github.kohanyirobert.ebson;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nullable;
+
+/**
+ * Receives the elements of a serialized {@linkplain BsonDocument document} as
+ * it is read in a single pass.
+ * <p>
+ * <b>Notes:</b>
+ * <ul>
+ * <li>Documents can be visited via the {@linkplain BsonDocuments documents
+ * utility class}.</li>
+ * <li>Primitive values are passed unboxed.</li>
+ * <li>{@linkplain CharSequence Character sequences} and
+ * {@linkplain ByteBuffer buffers} passed to a visitor are only valid until
+ * the method they were passed to returns and they must not be modified.</li>
+ * </ul>
+ * </p>
+ */
+public interface BsonVisitor {
+
+  /**
+   * Visits the start of a document.
+   * 
+   * @param key the key of the embedded document or null if it is the
+   * outermost document
+   */
+  void visitStartDocument(@Nullable String key);
+
+  /**
+   * Visits the end of the document that was started last.
+   */
+  void visitEndDocument();
+
+  /**
+   * Visits the start of an {@linkplain BsonObject#ARRAY array}.
+   * 
+   * @param key the key of the array
+   */
+  void visitStartArray(String key);
+
+  /**
+   * Visits the end of the array that was started last.
+   */
+  void visitEndArray();
+
+  /**
+   * Visits a {@linkplain BsonObject#DOUBLE floating point} value.
+   * 
+   * @param key the value's key
+   * @param value the value
+   */
+  void visitDouble(String key, double value);
+
+  /**
+   * Visits a {@linkplain BsonObject#STRING string} value.
+   * 
+   * @param key the value's key
+   * @param value the value
+   */
+  void visitString(String key, CharSequence value);
+
+  /**
+   * Visits a {@linkplain BsonObject#BINARY binary} value.
+   * 
+   * @param key the value's key
+   * @param binary the value's binary sub-type
+   * @param value the value (its remaining bytes)
+   */
+  void visitBinary(String key, BsonBinary binary, ByteBuffer value);
+
+  /**
+   * Visits an {@linkplain BsonObject#OBJECT_ID object ID} value.
+   * 
+   * @param key the value's key
+   * @param value the value
+   */
+  void visitObjectId(String key, BsonObjectId value);
+
+  /**
+   * Visits a {@linkplain BsonObject#BOOLEAN boolean} value.
+   * 
+   * @param key the value's key
+   * @param value the value
+   */
+  void visitBoolean(String key, boolean value);
+
+  /**
+   * Visits a {@linkplain BsonObject#UTC_DATE_TIME UTC date-time} value.
+   * 
+   * @param key the value's key
+   * @param value the value (milliseconds since the Unix epoch)
+   */
+  void visitUtcDateTime(String key, long value);
+
+  /**
+   * Visits a {@linkplain BsonObject#NULL null} value.
+   * 
+   * @param key the value's key
+   */
+  void visitNull(String key);
+
+  /**
+   * Visits a {@linkplain BsonObject#REGULAR_EXPRESSION regular expression}
+   * value.
+   * 
+   * @param key the value's key
+   * @param pattern the regular expression's pattern
+   * @param options the regular expression's options
+   */
+  void visitRegularExpression(String key, String pattern, String options);
+
+  /**
+   * Visits a {@linkplain BsonObject#SYMBOL symbol} value.
+   * 
+   * @param key the value's key
+   * @param value the value
+   */
+  void visitSymbol(String key, CharSequence value);
+
+  /**
+   * Visits a {@linkplain BsonObject#INT32 32-bit integer} value.
+   * 
+   * @param key the value's key
+   * @param value the value
+   */
+  void visitInt32(String key, int value);
+
+  /**
+   * Visits a {@linkplain BsonObject#TIMESTAMP timestamp} value.
+   * 
+   * @param key the value's key
+   * @param value the value
+   */
+  void visitTimestamp(String key, long value);
+
+  /**
+   * Visits a {@linkplain BsonObject#INT64 64-bit integer} value.
+   * 
+   * @param key the value's key
+   * @param value the value
+   */
+  void visitInt64(String key, long value);
+
+  /**
+   * Visits a value of any other type, read by its type's associated
+   * {@linkplain BsonObject#reader() reader}.
+   * 
+   * @param key the value's key
+   * @param bsonObject the value's type
+   * @param value the value
+   */
+  void visitValue(String key, BsonObject bsonObject, @Nullable Object value);
+
+  /**
+   * {@linkplain BsonVisitor Visitor} whose methods do nothing, subclasses
+   * override only the ones they are interested in.
+   */
+  public abstract static class Adapter implements BsonVisitor {
+
+    // @checkstyle:off JavadocMethod
+
+    @Override
+    public void visitStartDocument(@Nullable String key) {}
+
+    @Override
+    public void visitEndDocument() {}
+
+    @Override
+    public void visitStartArray(String key) {}
+
+    @Override
+    public void visitEndArray() {}
+
+    @Override
+    public void visitDouble(String key, double value) {}
+
+    @Override
+    public void visitString(String key, CharSequence value) {}
+
+    @Override
+    public void visitBinary(String key, BsonBinary binary, ByteBuffer value) {}
+
+    @Override
+    public void visitObjectId(String key, BsonObjectId value) {}
+
+    @Override
+    public void visitBoolean(String key, boolean value) {}
+
+    @Override
+    public void visitUtcDateTime(String key, long value) {}
+
+    @Override
+    public void visitNull(String key) {}
+
+    @Override
+    public void visitRegularExpression(String key, String pattern, String options) {}
+
+    @Override
+    public void visitSymbol(String key, CharSequence value) {}
+
+    @Override
+    public void visitInt32(String key, int value) {}
+
+    @Override
+    public void visitTimestamp(String key, long value) {}
+
+    @Override
+    public void visitInt64(String key, long value) {}
+
+    @Override
+    public void visitValue(String key, BsonObject bsonObject, @Nullable Object value) {}
+
+    // @checkstyle:on JavadocMethod
+  }
+}
@@ -0,0 +1,72 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+
+final class ChannelIterator extends AbstractIterator<BsonDocument> {
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  private final ReadableByteChannel channel;
+  private final DefaultDecoder decoder;
+  private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+  ChannelIterator(ReadableByteChannel channel, int maxDocumentLength) {
+    this.channel = channel;
+    decoder = new DefaultDecoder(maxDocumentLength);
+    chunk.flip();
+  }
+
+  @Override
+  protected BsonDocument computeNext() {
+    BsonDocument document;
+    while ((document = decoder.decode(chunk)) == null) {
+      if (!fill()) {
+        if (decoder.pending() > 0) {
+          throw new BufferUnderflowException();
+        }
+        return endOfData();
+      }
+    }
+    return document;
+  }
+
+  private boolean fill() {
+    try {
+      return fill(channel, chunk);
+    } catch (IOException e) {
+      throw Throwables.propagate(e);
+    }
+  }
+
+  // non-blocking channels would have to be polled for data, so they are
+  // rejected
+  static void checkBlocking(ReadableByteChannel channel) {
+    if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+      throw new IllegalArgumentException("channel is in non-blocking mode");
+    }
+  }
+
+  // refills 'chunk' from 'channel' and returns false at the end of stream, a
+  // read returning no bytes is only retried if 'channel' is blocking (when a
+  // non-blocking one has no data yet retrying would just spin)
+  static boolean fill(ReadableByteChannel channel, ByteBuffer chunk) throws IOException {
+    chunk.clear();
+    try {
+      int read;
+      while ((read = channel.read(chunk)) == 0) {
+        checkBlocking(channel);
+      }
+      return read > 0;
+    } finally {
+      chunk.flip();
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package com.github.kohanyirobert.ebson;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+abstract class DefaultArray extends AbstractList<Object> implements BsonArray, RandomAccess {
+
+  private DefaultArray() {}
+
+  static BsonArray of(Object[] values) {
+    return new ObjectArray(values);
+  }
+
+  static BsonArray of(double[] values) {
+    return new DoubleArray(values);
+  }
+
+  static BsonArray of(long[] values) {
+    return new LongArray(values);
+  }
+
+  static BsonArray of(int[] values) {
+    return new IntArray(values);
+  }
+
+  @Override
+  public BsonObject elementType() {
+    return null;
+  }
+
+  @Override
+  public double[] doubleArray() {
+    throw new IllegalStateException(String.format("'%s' array is not backed by a double array", elementType()));
+  }
+
+  @Override
+  public long[] longArray() {
+    throw new IllegalStateException(String.format("'%s' array is not backed by a long array", elementType()));
+  }
+
+  @Override
+  public int[] intArray() {
+    throw new IllegalStateException(String.format("'%s' array is not backed by an int array", elementType()));
+  }
+
+  private static final class ObjectArray extends DefaultArray {
+
+    private final Object[] values;
+
+    ObjectArray(Object[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public Object get(int index) {
+      return values[index];
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+
+  private static final class DoubleArray extends DefaultArray {
+
+    private final double[] values;
+
+    DoubleArray(double[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public BsonObject elementType() {
+      return BsonObject.DOUBLE;
+    }
+
+    @Override
+    public double[] doubleArray() {
+      return values;
+    }
+
+    @Override
+    public Object get(int index) {
+      return Double.valueOf(values[index]);
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+
+  private static final class LongArray extends DefaultArray {
+
+    private final long[] values;
+
+    LongArray(long[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public BsonObject elementType() {
+      return BsonObject.INT64;
+    }
+
+    @Override
+    public long[] longArray() {
+      return values;
+    }
+
+    @Override
+    public Object get(int index) {
+      return Long.valueOf(values[index]);
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+
+  private static final class IntArray extends DefaultArray {
+
+    private final int[] values;
+
+    IntArray(int[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public BsonObject elementType() {
+      return BsonObject.INT32;
+    }
+
+    @Override
+    public int[] intArray() {
+      return values;
+    }
+
+    @Override
+    public Object get(int index) {
+      return Integer.valueOf(values[index]);
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+}
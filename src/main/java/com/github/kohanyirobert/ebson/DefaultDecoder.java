@@ -0,0 +1,325 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import javax.annotation.CheckForNull;
+
+final class DefaultDecoder implements BsonDecoder {
+
+  private static final int INITIAL_CAPACITY = 256;
+  private static final int INITIAL_DEPTH = 8;
+
+  private final int maxDocumentLength;
+  private final DocumentWalker walker = new DocumentWalker();
+
+  // bytes carried over between chunks: the incomplete document when decoding
+  // documents, the incomplete element (or document header) when visiting
+  private ByteBuffer pending = ByteBuffer.allocate(INITIAL_CAPACITY).order(ByteOrder.LITTLE_ENDIAN);
+  private int documentLength;
+
+  // the parse position of the document being visited: whether the enclosing
+  // containers are arrays, their count and the bytes left of the document
+  private boolean[] arrays = new boolean[INITIAL_DEPTH];
+  private int depth;
+  private int remaining;
+
+  // the buffer keys are read from and a little-endian view of it
+  private ByteBuffer keySource;
+  private ByteBuffer keyView;
+
+  DefaultDecoder(int maxDocumentLength) {
+    this.maxDocumentLength = maxDocumentLength;
+  }
+
+  @Override
+  public BsonDocument decode(ByteBuffer chunk) {
+    ByteBuffer frame = frame(chunk);
+    if (frame == null) {
+      return null;
+    }
+    try {
+      return BsonDocuments.readFrom(frame);
+    } finally {
+      release(frame);
+    }
+  }
+
+  @Override
+  public boolean decode(ByteBuffer chunk, BsonVisitor visitor) {
+    checkChunk(chunk);
+    Preconditions.checkNotNull(visitor, "null visitor");
+    Preconditions.checkState(depth > 0 || pending.position() == 0 || documentLength == 0,
+        "an incomplete document is being decoded");
+    while (true) {
+      ByteBuffer source;
+      int position;
+      int limit;
+      if (pending.position() == 0) {
+        source = chunk;
+        position = chunk.position();
+        limit = chunk.limit();
+      } else {
+        source = pending;
+        position = 0;
+        limit = pending.position();
+      }
+
+      int length = unitLength(source, position, limit);
+      if (length == -1 || position + length > limit) {
+        if (!chunk.hasRemaining()) {
+          return false;
+        }
+        carry(chunk, length);
+        continue;
+      }
+
+      boolean completed = visitUnit(source, position, length, visitor);
+      if (source == chunk) {
+        chunk.position(position + length);
+      } else {
+        int size = pending.position();
+        pending.limit(size).position(length);
+        pending.compact();
+      }
+      if (completed) {
+        return true;
+      }
+    }
+  }
+
+  @Override
+  public int pending() {
+    return pending.position();
+  }
+
+  // returns a buffer positioned at the start of a completed document (either
+  // 'chunk' itself or the buffer of pending bytes) or null if 'chunk' was
+  // exhausted; a returned pending buffer must be released after it was read
+  @CheckForNull
+  ByteBuffer frame(ByteBuffer chunk) {
+    checkChunk(chunk);
+    Preconditions.checkState(depth == 0, "an incomplete document is being visited");
+    if (pending.position() == 0 && chunk.remaining() >= Ints.BYTES) {
+      int length = checkLength(chunk.getInt(chunk.position()));
+      if (chunk.remaining() >= length) {
+        return chunk;
+      }
+    }
+
+    if (pending.position() < Ints.BYTES) {
+      transfer(chunk, Ints.BYTES - pending.position());
+      if (pending.position() < Ints.BYTES) {
+        return null;
+      }
+      documentLength = checkLength(pending.getInt(0));
+      ensureCapacity(documentLength);
+    }
+
+    transfer(chunk, documentLength - pending.position());
+    if (pending.position() < documentLength) {
+      return null;
+    }
+    pending.flip();
+    return pending;
+  }
+
+  void release(ByteBuffer frame) {
+    if (frame == pending) {
+      pending.clear();
+      documentLength = 0;
+    }
+  }
+
+  // returns the length of the next unit (a document's length prefix, an
+  // element's terminal, key and value or, for embedded documents and arrays,
+  // just their length prefix, or the byte ending a document) or -1 if there
+  // aren't enough bytes to tell
+  // @do-not-check-next-line CyclomaticComplexity
+  private int unitLength(ByteBuffer source, int position, int limit) {
+    if (depth == 0) {
+      return Ints.BYTES;
+    }
+    if (position == limit) {
+      return -1;
+    }
+    byte terminal = source.get(position);
+    if (terminal == BsonBytes.EOO) {
+      return 1;
+    }
+    int valuePosition = cstringEnd(source, position + 1, limit);
+    if (valuePosition == -1) {
+      return -1;
+    }
+    BsonObject bsonObject = BsonObject.lookup(terminal);
+    if (bsonObject == null) {
+      throw invalid("invalid terminal: '%s'", terminal);
+    }
+    switch (bsonObject) {
+      case EMBEDDED:
+      case ARRAY:
+        return valuePosition + Ints.BYTES - position;
+      case REGULAR_EXPRESSION:
+        int options = cstringEnd(source, valuePosition, limit);
+        int end = options == -1 ? -1 : cstringEnd(source, options, limit);
+        return end == -1 ? -1 : end - position;
+      case STRING:
+      case SYMBOL:
+      case JAVASCRIPT_CODE:
+      case JAVASCRIPT_CODE_WITH_SCOPE:
+      case BINARY:
+      case DB_POINTER:
+        if (limit - valuePosition < Ints.BYTES) {
+          return -1;
+        }
+        int prefix = source.getInt(valuePosition);
+        if (prefix < 0 || prefix > remaining) {
+          throw invalid("invalid value length: '%s'", prefix);
+        }
+        return valuePosition + bsonObject.valueLength(source, valuePosition) - position;
+      default:
+        return valuePosition + bsonObject.valueLength(source, valuePosition) - position;
+    }
+  }
+
+  // passes the unit at 'position' to 'visitor' and returns whether it
+  // completed the document
+  private boolean visitUnit(ByteBuffer source, int position, int length, BsonVisitor visitor) {
+    if (depth == 0) {
+      remaining = checkLength(source.getInt(position)) - Ints.BYTES;
+      push(false);
+      visitor.visitStartDocument(null);
+      return false;
+    }
+
+    if (length > remaining) {
+      throw invalid("element overruns its document by '%s' bytes", length - remaining);
+    }
+    remaining -= length;
+    byte terminal = source.get(position);
+    if (terminal == BsonBytes.EOO) {
+      depth--;
+      if (arrays[depth]) {
+        visitor.visitEndArray();
+      } else {
+        visitor.visitEndDocument();
+      }
+      if (depth == 0 && remaining != 0) {
+        throw invalid("document ended '%s' bytes early", remaining);
+      }
+      return depth == 0;
+    }
+
+    BsonObject bsonObject = BsonObject.find(terminal);
+    String key = key(source, position + 1);
+    int valuePosition = keyView.position();
+    if (bsonObject == BsonObject.EMBEDDED || bsonObject == BsonObject.ARRAY) {
+      int embeddedLength = source.getInt(valuePosition);
+      if (embeddedLength < BsonDocuments.MIN_DOCUMENT_LENGTH || embeddedLength - Ints.BYTES > remaining) {
+        throw invalid("invalid document length: '%s'", embeddedLength);
+      }
+      boolean array = bsonObject == BsonObject.ARRAY;
+      push(array);
+      if (array) {
+        visitor.visitStartArray(key);
+      } else {
+        visitor.visitStartDocument(key);
+      }
+    } else {
+      walker.visitValue(source, visitor, bsonObject, key, valuePosition);
+    }
+    return false;
+  }
+
+  // reads the key at 'position' leaving the key view positioned after it
+  private String key(ByteBuffer source, int position) {
+    if (keySource != source) {
+      keySource = source;
+      keyView = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+    keyView.clear();
+    keyView.position(position);
+    return (String) BsonToken.KEY.reader().readFrom(keyView);
+  }
+
+  // returns the position after the '\0' terminating the string at 'position'
+  // or -1 if it's not terminated before 'limit'
+  private static int cstringEnd(ByteBuffer source, int position, int limit) {
+    for (int i = position; i < limit; i++) {
+      if (source.get(i) == BsonBytes.EOO) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  // moves bytes of the next unit from 'chunk' into the pending buffer: all of
+  // its missing bytes if its length is known, otherwise a few more to find out
+  private void carry(ByteBuffer chunk, int length) {
+    int size = pending.position();
+    int wanted;
+    if (length != -1) {
+      if (depth > 0 && length > remaining) {
+        throw invalid("element overruns its document by '%s' bytes", length - remaining);
+      }
+      wanted = length - size;
+    } else {
+      // lengths are only unknown inside documents
+      if (size >= remaining) {
+        throw invalid("element overruns its document by '%s' bytes", size - remaining + 1);
+      }
+      wanted = Math.min(Math.max(INITIAL_CAPACITY, size), remaining - size);
+    }
+    ensureCapacity(size + Math.min(wanted, chunk.remaining()));
+    transfer(chunk, wanted);
+  }
+
+  private void push(boolean array) {
+    if (depth == arrays.length) {
+      arrays = Arrays.copyOf(arrays, depth * 2);
+    }
+    arrays[depth++] = array;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (pending.capacity() < capacity) {
+      ByteBuffer grown = ByteBuffer.allocate(Math.max(capacity, pending.capacity() * 2))
+          .order(ByteOrder.LITTLE_ENDIAN);
+      pending.flip();
+      pending = grown.put(pending);
+    }
+  }
+
+  private void transfer(ByteBuffer chunk, int length) {
+    int transferred = Math.min(length, chunk.remaining());
+    int oldLimit = chunk.limit();
+    chunk.limit(chunk.position() + transferred);
+    pending.put(chunk);
+    chunk.limit(oldLimit);
+  }
+
+  private static void checkChunk(ByteBuffer chunk) {
+    Preconditions.checkNotNull(chunk, "null chunk");
+    Preconditions.checkArgument(chunk.order() == ByteOrder.LITTLE_ENDIAN,
+        "chunk has big-endian byte order; expected little-endian");
+  }
+
+  private int checkLength(int length) {
+    if (length < BsonDocuments.MIN_DOCUMENT_LENGTH || length > maxDocumentLength) {
+      throw invalid("invalid document length: '%s'", length);
+    }
+    return length;
+  }
+
+  // resets the decoder so that it can continue with the next document
+  private IllegalArgumentException invalid(String format, int value) {
+    pending.clear();
+    documentLength = 0;
+    depth = 0;
+    return new IllegalArgumentException(String.format(format, Integer.valueOf(value)));
+  }
+}
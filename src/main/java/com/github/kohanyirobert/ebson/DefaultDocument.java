@@ -1,19 +1,53 @@
 package com.github.kohanyirobert.ebson;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ForwardingMap;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
+import com.google.common.collect.UnmodifiableIterator;
+import com.google.common.primitives.Booleans;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Longs;
 
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
-final class DefaultDocument extends ForwardingMap<String, Object> implements BsonDocument {
+import javax.annotation.Nullable;
 
-  private final Map<String, Object> delegate;
+final class DefaultDocument extends AbstractMap<String, Object> implements BsonDocument {
 
-  DefaultDocument(Map<String, Object> map) {
-    delegate = Collections.unmodifiableMap(Maps.newLinkedHashMap(map));
+  static final DefaultDocument EMPTY = new DefaultDocument(DocumentShape.EMPTY, new Object[0]);
+
+  // shared by documents with the same keys
+  private final DocumentShape shape;
+  private final Object[] values;
+
+  // numbers and booleans may be stored unboxed: their kind is the terminal of
+  // their type (EOO for boxed values) and their bits are in 'primitives',
+  // both arrays are null if every value is boxed
+  @Nullable
+  private final byte[] kinds;
+  @Nullable
+  private final long[] primitives;
+
+  // takes ownership of the arrays, they must be as long as the shape
+  DefaultDocument(DocumentShape shape, Object[] values) {
+    this(shape, values, null, null);
+  }
+
+  DefaultDocument(DocumentShape shape, Object[] values, @Nullable byte[] kinds, @Nullable long[] primitives) {
+    this.shape = shape;
+    this.values = values;
+    this.kinds = kinds;
+    this.primitives = primitives;
   }
 
   @Override
@@ -32,17 +66,196 @@ final class DefaultDocument extends ForwardingMap<String, Object> implements Bso
 
   @Override
   public Object get(Object key) {
-    Preconditions.checkArgument(containsKey(key), "key: '%s' is missing", key);
-    return super.get(key);
+    return value(existingIndexOf(key));
+  }
+
+  @Override
+  public int getInt(Object key) {
+    return getInt(existingIndexOf(key));
+  }
+
+  @Override
+  public int getInt(Object key, int defaultValue) {
+    int i = indexOf(key);
+    return i == -1 ? defaultValue : getInt(i);
+  }
+
+  @Override
+  public long getLong(Object key) {
+    return getLong(existingIndexOf(key));
+  }
+
+  @Override
+  public long getLong(Object key, long defaultValue) {
+    int i = indexOf(key);
+    return i == -1 ? defaultValue : getLong(i);
+  }
+
+  @Override
+  public double getDouble(Object key) {
+    return getDouble(existingIndexOf(key));
+  }
+
+  @Override
+  public double getDouble(Object key, double defaultValue) {
+    int i = indexOf(key);
+    return i == -1 ? defaultValue : getDouble(i);
+  }
+
+  @Override
+  public boolean getBoolean(Object key) {
+    return getBoolean(existingIndexOf(key));
+  }
+
+  @Override
+  public boolean getBoolean(Object key, boolean defaultValue) {
+    int i = indexOf(key);
+    return i == -1 ? defaultValue : getBoolean(i);
   }
 
   @Override
   public boolean containsKey(Object key) {
-    Preconditions.checkNotNull(key, "null key");
-    if (!String.class.isInstance(key)) {
-      throw new ClassCastException(String.format("key: '%s' is not a string", key));
+    return indexOf(key) != -1;
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return values.length == 0;
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return new AbstractSet<String>() {
+
+      @Override
+      public Iterator<String> iterator() {
+        return Iterators.forArray(shape.keys());
+      }
+
+      @Override
+      public boolean contains(Object object) {
+        return object instanceof String && indexOf(object) != -1;
+      }
+
+      @Override
+      public int size() {
+        return values.length;
+      }
+    };
+  }
+
+  @Override
+  public Collection<Object> values() {
+    if (kinds == null) {
+      return Collections.unmodifiableList(Arrays.asList(values));
+    }
+    return new AbstractList<Object>() {
+
+      @Override
+      public Object get(int i) {
+        return value(i);
+      }
+
+      @Override
+      public int size() {
+        return values.length;
+      }
+    };
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<Entry<String, Object>>() {
+
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new UnmodifiableIterator<Entry<String, Object>>() {
+
+          private int i;
+
+          @Override
+          public boolean hasNext() {
+            return i < values.length;
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+            Preconditions.checkElementIndex(i, values.length);
+            Entry<String, Object> entry = Maps.immutableEntry(shape.key(i), value(i));
+            i++;
+            return entry;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return values.length;
+      }
+    };
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Object remove(Object key) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ? extends Object> map) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean equals(@Nullable Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (!(object instanceof Map)) {
+      return false;
     }
-    return super.containsKey(key);
+    if (object instanceof DefaultDocument && ((DefaultDocument) object).shape == shape) {
+      DefaultDocument other = (DefaultDocument) object;
+      for (int i = 0; i < values.length; i++) {
+        if (!Objects.equal(value(i), other.value(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+    Map<?, ?> map = (Map<?, ?>) object;
+    if (map.size() != values.length) {
+      return false;
+    }
+    for (int i = 0; i < values.length; i++) {
+      if (!map.containsKey(shape.key(i)) || !Objects.equal(value(i), map.get(shape.key(i)))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (int i = 0; i < values.length; i++) {
+      hashCode += shape.key(i).hashCode() ^ valueHashCode(i);
+    }
+    return hashCode;
   }
 
   @Override
@@ -56,8 +269,86 @@ final class DefaultDocument extends ForwardingMap<String, Object> implements Bso
         .toString();
   }
 
-  @Override
-  protected Map<String, Object> delegate() {
-    return delegate;
+  @Nullable
+  private Object value(int i) {
+    byte kind = kinds == null ? BsonBytes.EOO : kinds[i];
+    switch (kind) {
+      case BsonBytes.INT32:
+        return Integer.valueOf((int) primitives[i]);
+      case BsonBytes.INT64:
+        return Long.valueOf(primitives[i]);
+      case BsonBytes.DOUBLE:
+        return Double.valueOf(Double.longBitsToDouble(primitives[i]));
+      case BsonBytes.BOOLEAN:
+        return Boolean.valueOf(primitives[i] != 0);
+      default:
+        return values[i];
+    }
+  }
+
+  // the hash code of the boxed value without boxing it
+  private int valueHashCode(int i) {
+    byte kind = kinds == null ? BsonBytes.EOO : kinds[i];
+    switch (kind) {
+      case BsonBytes.INT32:
+        return (int) primitives[i];
+      case BsonBytes.INT64:
+        return Longs.hashCode(primitives[i]);
+      case BsonBytes.DOUBLE:
+        return Doubles.hashCode(Double.longBitsToDouble(primitives[i]));
+      case BsonBytes.BOOLEAN:
+        return Booleans.hashCode(primitives[i] != 0);
+      default:
+        return values[i] == null ? 0 : values[i].hashCode();
+    }
+  }
+
+  private int getInt(int i) {
+    return kinds != null && kinds[i] == BsonBytes.INT32
+        ? (int) primitives[i]
+        : boxed(i, Integer.class).intValue();
+  }
+
+  private long getLong(int i) {
+    return kinds != null && kinds[i] == BsonBytes.INT64
+        ? primitives[i]
+        : boxed(i, Long.class).longValue();
+  }
+
+  private double getDouble(int i) {
+    return kinds != null && kinds[i] == BsonBytes.DOUBLE
+        ? Double.longBitsToDouble(primitives[i])
+        : boxed(i, Double.class).doubleValue();
+  }
+
+  private boolean getBoolean(int i) {
+    return kinds != null && kinds[i] == BsonBytes.BOOLEAN
+        ? primitives[i] != 0
+        : boxed(i, Boolean.class).booleanValue();
+  }
+
+  private <T> T boxed(int i, Class<T> type) {
+    Object value = value(i);
+    if (!type.isInstance(value)) {
+      throw new IllegalArgumentException(String.format("expected '%s' instead of '%s'",
+          value == null ? null : value.getClass(), type));
+    }
+    return type.cast(value);
+  }
+
+  private int existingIndexOf(Object key) {
+    int i = indexOf(key);
+    if (i == -1) {
+      throw new IllegalArgumentException(String.format("key: '%s' is missing", key));
+    }
+    return i;
+  }
+
+  private int indexOf(Object key) {
+    Preconditions.checkNotNull(key, "null key");
+    if (!String.class.isInstance(key)) {
+      throw new ClassCastException(String.format("key: '%s' is not a string", key));
+    }
+    return shape.indexOf(key);
   }
 }
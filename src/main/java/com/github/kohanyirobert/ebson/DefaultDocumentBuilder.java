@@ -1,9 +1,8 @@
 package com.github.kohanyirobert.ebson;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Maps;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -11,10 +10,18 @@ import javax.annotation.Nullable;
 
 final class DefaultDocumentBuilder implements BsonDocument.Builder {
 
-  private final Map<String, Object> builder;
+  private static final int INITIAL_CAPACITY = 8;
+
+  private String[] keys;
+  private Object[] values;
+  private byte[] kinds;
+  private long[] primitives;
+  private int size;
+  private int[] index;
 
   DefaultDocumentBuilder() {
-    builder = Maps.newLinkedHashMap();
+    keys = new String[INITIAL_CAPACITY];
+    values = new Object[INITIAL_CAPACITY];
   }
 
   @Override
@@ -28,16 +35,87 @@ final class DefaultDocumentBuilder implements BsonDocument.Builder {
 
   @Override
   public BsonDocument.Builder put(String key, @Nullable Object value) {
-    Preconditions.checkNotNull(key, "null key");
-    Preconditions.checkArgument(!builder.containsKey(key), "key: '%s' is already present", key);
-    builder.put(key, value);
+    int i = add(key);
+    values[i] = value;
+    return this;
+  }
+
+  // the following store their values unboxed
+
+  DefaultDocumentBuilder putInt(String key, int value) {
+    putPrimitive(key, BsonBytes.INT32, value);
+    return this;
+  }
+
+  DefaultDocumentBuilder putLong(String key, long value) {
+    putPrimitive(key, BsonBytes.INT64, value);
+    return this;
+  }
+
+  DefaultDocumentBuilder putDouble(String key, double value) {
+    putPrimitive(key, BsonBytes.DOUBLE, Double.doubleToRawLongBits(value));
+    return this;
+  }
+
+  DefaultDocumentBuilder putBoolean(String key, boolean value) {
+    putPrimitive(key, BsonBytes.BOOLEAN, value ? 1 : 0);
     return this;
   }
 
   @Override
   public BsonDocument build() {
-    return new DefaultDocument(builder.isEmpty()
-        ? Collections.<String, Object>emptyMap()
-        : builder);
+    if (size == 0) {
+      return DefaultDocument.EMPTY;
+    }
+    DocumentShape shape = DocumentShape.of(keys, size);
+    return kinds == null
+        ? new DefaultDocument(shape, Arrays.copyOf(values, size))
+        : new DefaultDocument(shape, Arrays.copyOf(values, size),
+            Arrays.copyOf(kinds, size), Arrays.copyOf(primitives, size));
+  }
+
+  private void putPrimitive(String key, byte kind, long bits) {
+    int i = add(key);
+    if (kinds == null) {
+      kinds = new byte[keys.length];
+      primitives = new long[keys.length];
+    }
+    kinds[i] = kind;
+    primitives[i] = bits;
+  }
+
+  // appends 'key' and returns its index
+  private int add(String key) {
+    Preconditions.checkNotNull(key, "null key");
+    if (indexOf(key) != -1) {
+      throw new IllegalArgumentException(String.format("key: '%s' is already present", key));
+    }
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+      if (kinds != null) {
+        kinds = Arrays.copyOf(kinds, size * 2);
+        primitives = Arrays.copyOf(primitives, size * 2);
+      }
+    }
+    keys[size] = key;
+    if (index != null) {
+      if (KeyIndex.fits(index, size + 1)) {
+        KeyIndex.insert(index, key, size);
+      } else {
+        index = null;
+      }
+    }
+    return size++;
+  }
+
+  private int indexOf(String key) {
+    if (size <= KeyIndex.LINEAR_SEARCH_THRESHOLD) {
+      return KeyIndex.linearIndexOf(keys, size, key);
+    }
+    if (index == null) {
+      index = KeyIndex.build(keys, size);
+    }
+    return KeyIndex.indexOf(index, keys, key);
   }
 }
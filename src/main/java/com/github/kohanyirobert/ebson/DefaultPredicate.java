@@ -54,13 +54,8 @@ enum DefaultPredicate implements Predicate<Class<?>> {
   BINARY {
 
     @Override
-    public boolean apply(final Class<?> input) {
-      for (BsonBinary binary : BsonBinary.values()) {
-        if (binary.predicate().apply(input)) {
-          return true;
-        }
-      }
-      return false;
+    public boolean apply(Class<?> input) {
+      return BsonBinary.lookup(input) != null;
     }
   },
 
@@ -0,0 +1,93 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+
+final class DefaultProjection implements BsonProjection {
+
+  private static final Splitter SPLITTER = Splitter.on('.');
+
+  private final Set<String> paths;
+  private final Node root = new Node();
+
+  DefaultProjection(Iterable<String> paths) {
+    this.paths = ImmutableSet.copyOf(paths);
+    for (String path : this.paths) {
+      Node node = root;
+      for (String key : SPLITTER.split(path)) {
+        Preconditions.checkArgument(!key.isEmpty(), "path: '%s' contains an empty key", path);
+        node = node.child(key);
+      }
+      node.selected = true;
+    }
+  }
+
+  @Override
+  public Set<String> paths() {
+    return paths;
+  }
+
+  @Override
+  public String toString() {
+    return paths.toString();
+  }
+
+  BsonDocument readFrom(ByteBuffer buffer) {
+    return readFrom(buffer, root);
+  }
+
+  private static BsonDocument readFrom(ByteBuffer buffer, Node node) {
+    int start = buffer.position();
+    int end = start + buffer.getInt(start);
+    BsonDocument.Builder document = BsonDocuments.builder();
+    BsonReader keyReader = BsonToken.KEY.reader();
+    int position = start + Ints.BYTES;
+    int remaining = node.children.size();
+    while (remaining > 0 && buffer.get(position) != BsonBytes.EOO) {
+      BsonObject bsonObject = BsonObject.find(buffer.get(position));
+      buffer.position(position + 1);
+      String key = (String) keyReader.readFrom(buffer);
+      int valuePosition = buffer.position();
+      position = valuePosition + bsonObject.valueLength(buffer, valuePosition);
+      Node child = node.children.get(key);
+      if (child == null) {
+        continue;
+      }
+      remaining--;
+      if (child.selected) {
+        document.put(key, bsonObject.reader().readFrom(buffer));
+      } else if (bsonObject == BsonObject.EMBEDDED || bsonObject == BsonObject.ARRAY) {
+        BsonDocument embedded = readFrom(buffer, child);
+        if (!embedded.isEmpty()) {
+          document.put(key, embedded);
+        }
+      }
+    }
+    buffer.position(end);
+    return document.build();
+  }
+
+  private static final class Node {
+
+    private final Map<String, Node> children = Maps.newHashMap();
+    private boolean selected;
+
+    Node() {}
+
+    Node child(String key) {
+      Node child = children.get(key);
+      if (child == null) {
+        child = new Node();
+        children.put(key, child);
+      }
+      return child;
+    }
+  }
+}
@@ -2,15 +2,18 @@ package com.github.kohanyirobert.ebson;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Doubles;
 import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
 
 enum DefaultReader implements BsonReader {
 
@@ -20,15 +23,40 @@ enum DefaultReader implements BsonReader {
     public Object checkedReadFrom(ByteBuffer buffer) {
       int documentLength = buffer.getInt();
       BsonReader fieldReader = BsonToken.FIELD.reader();
-      BsonDocument.Builder document = BsonDocuments.builder();
-      if (documentLength > Ints.BYTES + 1) {
-        do {
-          @SuppressWarnings("unchecked")
-          Entry<String, Object> entry = (Entry<String, Object>) fieldReader.readFrom(buffer);
-          document.put(entry.getKey(), entry.getValue());
-        } while (buffer.get(buffer.position()) != BsonBytes.EOO);
+      if (fieldReader != FIELD) {
+        BsonDocument.Builder document = BsonDocuments.builder();
+        if (documentLength > Ints.BYTES + 1) {
+          do {
+            @SuppressWarnings("unchecked")
+            Entry<String, Object> entry = (Entry<String, Object>) fieldReader.readFrom(buffer);
+            document.put(entry.getKey(), entry.getValue());
+          } while (buffer.get(buffer.position()) != BsonBytes.EOO);
+        }
+        buffer.get();
+        return document.build();
+      }
+
+      // reads fields in place and stores numbers and booleans unboxed unless
+      // their readers were replaced
+      DefaultDocumentBuilder document = new DefaultDocumentBuilder();
+      BsonReader keyReader = BsonToken.KEY.reader();
+      byte terminal;
+      while ((terminal = buffer.get()) != BsonBytes.EOO) {
+        BsonObject bsonObject = BsonObject.find(terminal);
+        String key = (String) keyReader.readFrom(buffer);
+        BsonReader valueReader = bsonObject.reader();
+        if (valueReader == INT32) {
+          document.putInt(key, buffer.getInt());
+        } else if (valueReader == INT64) {
+          document.putLong(key, buffer.getLong());
+        } else if (valueReader == DOUBLE) {
+          document.putDouble(key, buffer.getDouble());
+        } else if (valueReader == BOOLEAN) {
+          document.putBoolean(key, buffer.get() == BsonBytes.TRUE);
+        } else {
+          document.put(key, valueReader.readFrom(buffer));
+        }
       }
-      buffer.get();
       return document.build();
     }
   },
@@ -49,12 +77,7 @@ enum DefaultReader implements BsonReader {
 
     @Override
     public Object checkedReadFrom(ByteBuffer buffer) {
-      byte[] bytes = new byte[] {};
-      byte[] read = new byte[] {BsonBytes.EOF};
-      while ((read[0] = buffer.get()) != BsonBytes.EOO) {
-        bytes = Bytes.concat(bytes, read);
-      }
-      return new String(bytes, Charsets.UTF_8);
+      return KeyTable.readFrom(buffer);
     }
   },
 
@@ -81,7 +104,93 @@ enum DefaultReader implements BsonReader {
 
     @Override
     public Object checkedReadFrom(ByteBuffer buffer) {
-      return BsonToken.DOCUMENT.reader().readFrom(buffer);
+      int end = buffer.position() + buffer.getInt();
+      byte terminal = buffer.get(buffer.position());
+      if (terminal == BsonBytes.DOUBLE && BsonObject.DOUBLE.reader() == DOUBLE) {
+        return readDoubles(buffer, end);
+      } else if (terminal == BsonBytes.INT64 && BsonObject.INT64.reader() == INT64) {
+        return readLongs(buffer, end);
+      } else if (terminal == BsonBytes.INT32 && BsonObject.INT32.reader() == INT32) {
+        return readInts(buffer, end);
+      }
+      return readObjects(buffer, Lists.newArrayList());
+    }
+
+    private BsonArray readDoubles(ByteBuffer buffer, int end) {
+      double[] values = new double[capacity(buffer, end, Doubles.BYTES)];
+      int size = 0;
+      while (buffer.get(buffer.position()) == BsonBytes.DOUBLE) {
+        skipKey(buffer);
+        values[size++] = buffer.getDouble();
+      }
+      if (buffer.get(buffer.position()) == BsonBytes.EOO) {
+        buffer.get();
+        return DefaultArray.of(size == values.length ? values : Arrays.copyOf(values, size));
+      }
+      List<Object> objects = Lists.newArrayListWithCapacity(size);
+      for (int i = 0; i < size; i++) {
+        objects.add(Double.valueOf(values[i]));
+      }
+      return readObjects(buffer, objects);
+    }
+
+    private BsonArray readLongs(ByteBuffer buffer, int end) {
+      long[] values = new long[capacity(buffer, end, Longs.BYTES)];
+      int size = 0;
+      while (buffer.get(buffer.position()) == BsonBytes.INT64) {
+        skipKey(buffer);
+        values[size++] = buffer.getLong();
+      }
+      if (buffer.get(buffer.position()) == BsonBytes.EOO) {
+        buffer.get();
+        return DefaultArray.of(size == values.length ? values : Arrays.copyOf(values, size));
+      }
+      List<Object> objects = Lists.newArrayListWithCapacity(size);
+      for (int i = 0; i < size; i++) {
+        objects.add(Long.valueOf(values[i]));
+      }
+      return readObjects(buffer, objects);
+    }
+
+    private BsonArray readInts(ByteBuffer buffer, int end) {
+      int[] values = new int[capacity(buffer, end, Ints.BYTES)];
+      int size = 0;
+      while (buffer.get(buffer.position()) == BsonBytes.INT32) {
+        skipKey(buffer);
+        values[size++] = buffer.getInt();
+      }
+      if (buffer.get(buffer.position()) == BsonBytes.EOO) {
+        buffer.get();
+        return DefaultArray.of(size == values.length ? values : Arrays.copyOf(values, size));
+      }
+      List<Object> objects = Lists.newArrayListWithCapacity(size);
+      for (int i = 0; i < size; i++) {
+        objects.add(Integer.valueOf(values[i]));
+      }
+      return readObjects(buffer, objects);
+    }
+
+    private BsonArray readObjects(ByteBuffer buffer, List<Object> objects) {
+      byte terminal;
+      while ((terminal = buffer.get(buffer.position())) != BsonBytes.EOO) {
+        BsonObject bsonObject = BsonObject.find(terminal);
+        skipKey(buffer);
+        objects.add(bsonObject.reader().readFrom(buffer));
+      }
+      buffer.get();
+      return DefaultArray.of(objects.toArray());
+    }
+
+    // an element takes at least a terminal, a single digit key, its
+    // terminator and the value itself
+    private int capacity(ByteBuffer buffer, int end, int valueLength) {
+      return (end - buffer.position() - 1) / (3 + valueLength);
+    }
+
+    // skips an element's terminal and its key (the elements' index)
+    private void skipKey(ByteBuffer buffer) {
+      buffer.get();
+      while (buffer.get() != BsonBytes.EOO) {}
     }
   },
 
@@ -149,37 +258,7 @@ enum DefaultReader implements BsonReader {
       BsonReader keyReader = BsonToken.KEY.reader();
       String pattern = (String) keyReader.readFrom(buffer);
       String options = (String) keyReader.readFrom(buffer);
-      return Pattern.compile(pattern, optionsToFlags(options));
-    }
-
-    private int optionsToFlags(String options) {
-      int flags = 0;
-      for (char option : options.toCharArray()) {
-        flags |= flags + optionToFlag(option);
-      }
-      return flags;
-    }
-
-    // @do-not-check-next-line CyclomaticComplexity
-    private int optionToFlag(char option) {
-      int flag = 0;
-      switch (option) {
-        case 'i':
-          flag = Pattern.CASE_INSENSITIVE;
-          break;
-        case 'm':
-          flag = Pattern.MULTILINE;
-          break;
-        case 's':
-          flag = Pattern.DOTALL;
-          break;
-        case 'x':
-          flag = Pattern.COMMENTS;
-          break;
-        default:
-          break;
-      }
-      return flag;
+      return RegularExpressions.compile(pattern, options);
     }
   },
 
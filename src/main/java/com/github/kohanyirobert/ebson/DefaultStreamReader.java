@@ -0,0 +1,153 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.primitives.Ints;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+final class DefaultStreamReader implements BsonStreamReader {
+
+  private static final int INITIAL_DEPTH = 8;
+
+  private final ByteBuffer buffer;
+
+  private int[] ends = new int[INITIAL_DEPTH];
+  private int depth;
+  private int position;
+
+  private BsonObject current;
+  private String key;
+  private int valuePosition;
+
+  DefaultStreamReader(ByteBuffer buffer) {
+    this.buffer = buffer;
+    ends[depth++] = buffer.position() + buffer.getInt(buffer.position());
+    position = buffer.position() + Ints.BYTES;
+  }
+
+  @Override
+  public BsonObject next() {
+    checkDepth();
+    if (current != null) {
+      skipValue();
+    }
+    if (position == ends[depth - 1]) {
+      return null;
+    }
+    byte terminal = buffer.get(position);
+    if (terminal == BsonBytes.EOO) {
+      position = ends[depth - 1];
+      return null;
+    }
+    BsonObject bsonObject = BsonObject.find(terminal);
+    buffer.position(position + 1);
+    key = (String) BsonToken.KEY.reader().readFrom(buffer);
+    valuePosition = buffer.position();
+    current = bsonObject;
+    return bsonObject;
+  }
+
+  @Override
+  public String key() {
+    checkCurrent();
+    return key;
+  }
+
+  @Override
+  public int intValue() {
+    checkCurrent(current == BsonObject.INT32);
+    return buffer.getInt(valuePosition);
+  }
+
+  @Override
+  public long longValue() {
+    checkCurrent(current == BsonObject.INT64
+        || current == BsonObject.UTC_DATE_TIME
+        || current == BsonObject.TIMESTAMP);
+    return buffer.getLong(valuePosition);
+  }
+
+  @Override
+  public double doubleValue() {
+    checkCurrent(current == BsonObject.DOUBLE);
+    return buffer.getDouble(valuePosition);
+  }
+
+  @Override
+  public boolean booleanValue() {
+    checkCurrent(current == BsonObject.BOOLEAN);
+    return buffer.get(valuePosition) == BsonBytes.TRUE;
+  }
+
+  @Override
+  public String stringValue() {
+    checkCurrent(current == BsonObject.STRING
+        || current == BsonObject.SYMBOL
+        || current == BsonObject.JAVASCRIPT_CODE);
+    return Utf8.decode(buffer, valuePosition + Ints.BYTES, buffer.getInt(valuePosition) - 1);
+  }
+
+  @Override
+  public Object value() {
+    checkCurrent();
+    buffer.position(valuePosition);
+    return current.reader().readFrom(buffer);
+  }
+
+  @Override
+  public void skipValue() {
+    checkCurrent();
+    position = valuePosition + current.valueLength(buffer, valuePosition);
+    current = null;
+  }
+
+  @Override
+  public void enterDocument() {
+    checkCurrent(current == BsonObject.EMBEDDED || current == BsonObject.ARRAY);
+    if (depth == ends.length) {
+      ends = Arrays.copyOf(ends, depth * 2);
+    }
+    ends[depth++] = valuePosition + buffer.getInt(valuePosition);
+    position = valuePosition + Ints.BYTES;
+    current = null;
+  }
+
+  @Override
+  public void exitDocument() {
+    checkDepth();
+    position = ends[--depth];
+    current = null;
+    if (depth == 0) {
+      buffer.position(position);
+    }
+  }
+
+  @Override
+  public int depth() {
+    return depth;
+  }
+
+  int valuePosition() {
+    checkCurrent();
+    return valuePosition;
+  }
+
+  private void checkDepth() {
+    if (depth == 0) {
+      throw new IllegalStateException("outermost document was already exited");
+    }
+  }
+
+  private void checkCurrent() {
+    if (current == null) {
+      throw new IllegalStateException("there is no current element");
+    }
+  }
+
+  private void checkCurrent(boolean expected) {
+    checkCurrent();
+    if (!expected) {
+      throw new IllegalStateException(String.format("'%s' value cannot be read as requested", current));
+    }
+  }
+}
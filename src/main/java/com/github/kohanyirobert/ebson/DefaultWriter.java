@@ -1,10 +1,6 @@
 package com.github.kohanyirobert.ebson;
 
-import com.google.common.base.Charsets;
-import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.google.common.primitives.Doubles;
 import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
@@ -12,11 +8,13 @@ import com.google.common.primitives.Longs;
 import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.SortedSet;
+import java.util.RandomAccess;
 import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
@@ -27,8 +25,12 @@ enum DefaultWriter implements BsonWriter {
 
     @Override
     public void checkedWriteTo(ByteBuffer buffer, Object reference) {
+      if (reference instanceof BsonRawDocument) {
+        buffer.put(((BsonRawDocument) reference).bytes());
+        return;
+      }
       int markedPosition = buffer.position();
-      buffer.position(markedPosition + Ints.BYTES);
+      buffer.putInt(0);
       BsonWriter fieldWriter = BsonToken.FIELD.writer();
       for (Entry<?, ?> entry : ((Map<?, ?>) reference).entrySet()) {
         fieldWriter.writeTo(buffer, entry);
@@ -39,6 +41,9 @@ enum DefaultWriter implements BsonWriter {
 
     @Override
     public int getSize(Object reference) {
+      if (reference instanceof BsonRawDocument) {
+        return ((BsonRawDocument) reference).bytes().remaining();
+      }
       int constSize = BYTES_BYTES + Ints.BYTES;
       int variableSize = 0;
       BsonWriter fieldWriter = BsonToken.FIELD.writer();
@@ -80,13 +85,13 @@ enum DefaultWriter implements BsonWriter {
 
     @Override
     public void checkedWriteTo(ByteBuffer buffer, Object reference) {
-      buffer.put(((String) reference).getBytes(Charsets.UTF_8)).put(BsonBytes.EOO);
+      KeyTable.writeTo(buffer, (String) reference);
     }
 
     @Override
     public int getSize(@Nullable Object reference) {
       int constSize = BYTES_BYTES;
-      int variableSize = ((String) reference).getBytes(Charsets.UTF_8).length;
+      int variableSize = Utf8.encodedLength((String) reference);
       return constSize + variableSize;
     }
   },
@@ -108,15 +113,18 @@ enum DefaultWriter implements BsonWriter {
 
     @Override
     public void checkedWriteTo(ByteBuffer buffer, Object reference) {
-      byte[] bytes = ((String) reference).getBytes(Charsets.UTF_8);
-      buffer.putInt(bytes.length + 1).put(bytes).put(BsonBytes.EOO);
+      String string = (String) reference;
+      int markedPosition = buffer.position();
+      buffer.putInt(0);
+      Utf8.encode(string, buffer);
+      buffer.put(BsonBytes.EOO);
+      buffer.putInt(markedPosition, buffer.position() - markedPosition - Ints.BYTES);
     }
 
     @Override
     public int getSize(@Nullable Object reference) {
       int constSize = Ints.BYTES + BYTES_BYTES;
-      byte[] bytes = ((String) reference).getBytes(Charsets.UTF_8);
-      int variableSize = bytes.length;
+      int variableSize = Utf8.encodedLength((String) reference);
       return constSize + variableSize;
     }
   },
@@ -125,26 +133,130 @@ enum DefaultWriter implements BsonWriter {
 
     @Override
     public void checkedWriteTo(ByteBuffer buffer, Object reference) {
-      Object array = reference instanceof Collection
-          ? ((Collection<?>) reference).toArray()
-          : reference;
-      Map<Object, Object> document = Maps.newLinkedHashMap();
-      for (int i = 0; i < Array.getLength(array); i++) {
-        document.put(String.valueOf(i), Array.get(array, i));
+      Object array = unwrap(reference);
+      int markedPosition = buffer.position();
+      buffer.putInt(0);
+      if (array instanceof int[] && isDefault(Integer.class, BsonObject.INT32, INT32)) {
+        int[] values = (int[]) array;
+        for (int i = 0; i < values.length; i++) {
+          buffer.put(BsonBytes.INT32);
+          IndexKeys.writeTo(buffer, i);
+          buffer.putInt(values[i]);
+        }
+      } else if (array instanceof long[] && isDefault(Long.class, BsonObject.INT64, INT64)) {
+        long[] values = (long[]) array;
+        for (int i = 0; i < values.length; i++) {
+          buffer.put(BsonBytes.INT64);
+          IndexKeys.writeTo(buffer, i);
+          buffer.putLong(values[i]);
+        }
+      } else if (array instanceof double[] && isDefault(Double.class, BsonObject.DOUBLE, DOUBLE)) {
+        double[] values = (double[]) array;
+        for (int i = 0; i < values.length; i++) {
+          buffer.put(BsonBytes.DOUBLE);
+          IndexKeys.writeTo(buffer, i);
+          buffer.putDouble(values[i]);
+        }
+      } else if (array instanceof boolean[] && isDefault(Boolean.class, BsonObject.BOOLEAN, BOOLEAN)) {
+        boolean[] values = (boolean[]) array;
+        for (int i = 0; i < values.length; i++) {
+          buffer.put(BsonBytes.BOOLEAN);
+          IndexKeys.writeTo(buffer, i);
+          buffer.put(values[i] ? BsonBytes.TRUE : BsonBytes.FALSE);
+        }
+      } else if (array instanceof List && array instanceof RandomAccess) {
+        List<?> list = (List<?>) array;
+        for (int i = 0; i < list.size(); i++) {
+          writeElementTo(buffer, i, list.get(i));
+        }
+      } else if (array instanceof Collection) {
+        int i = 0;
+        for (Object element : (Collection<?>) array) {
+          writeElementTo(buffer, i++, element);
+        }
+      } else {
+        for (int i = 0; i < Array.getLength(array); i++) {
+          writeElementTo(buffer, i, Array.get(array, i));
+        }
       }
-      BsonToken.DOCUMENT.writer().writeTo(buffer, document);
+      buffer.put(BsonBytes.EOO);
+      buffer.putInt(markedPosition, buffer.position() - markedPosition);
     }
 
     @Override
     public int getSize(@Nullable Object reference) {
-      Object array = reference instanceof Collection
-          ? ((Collection<?>) reference).toArray()
-          : reference;
-      Map<Object, Object> document = Maps.newLinkedHashMap();
-      for (int i = 0; i < Array.getLength(array); i++) {
-        document.put(String.valueOf(i), Array.get(array, i));
+      Object array = unwrap(reference);
+      int constSize = Ints.BYTES + BYTES_BYTES;
+      int variableSize = 0;
+      if (array instanceof int[] && isDefault(Integer.class, BsonObject.INT32, INT32)) {
+        variableSize = primitivesSize(((int[]) array).length, Ints.BYTES);
+      } else if (array instanceof long[] && isDefault(Long.class, BsonObject.INT64, INT64)) {
+        variableSize = primitivesSize(((long[]) array).length, Longs.BYTES);
+      } else if (array instanceof double[] && isDefault(Double.class, BsonObject.DOUBLE, DOUBLE)) {
+        variableSize = primitivesSize(((double[]) array).length, Doubles.BYTES);
+      } else if (array instanceof boolean[] && isDefault(Boolean.class, BsonObject.BOOLEAN, BOOLEAN)) {
+        variableSize = primitivesSize(((boolean[]) array).length, BOOLEANS_BYTES);
+      } else if (array instanceof List && array instanceof RandomAccess) {
+        List<?> list = (List<?>) array;
+        for (int i = 0; i < list.size(); i++) {
+          variableSize += elementSize(i, list.get(i));
+        }
+      } else if (array instanceof Collection) {
+        int i = 0;
+        for (Object element : (Collection<?>) array) {
+          variableSize += elementSize(i++, element);
+        }
+      } else {
+        for (int i = 0; i < Array.getLength(array); i++) {
+          variableSize += elementSize(i, Array.get(array, i));
+        }
       }
-      return BsonToken.DOCUMENT.writer().getSize(document);
+      return constSize + variableSize;
+    }
+
+    // primitive backed arrays are written through their backing arrays and
+    // object arrays are written as (non-copying) lists
+    private Object unwrap(Object reference) {
+      if (reference instanceof BsonArray) {
+        BsonArray array = (BsonArray) reference;
+        BsonObject elementType = array.elementType();
+        if (elementType == BsonObject.DOUBLE) {
+          return array.doubleArray();
+        } else if (elementType == BsonObject.INT64) {
+          return array.longArray();
+        } else if (elementType == BsonObject.INT32) {
+          return array.intArray();
+        }
+      } else if (reference instanceof Object[]) {
+        return Arrays.asList((Object[]) reference);
+      }
+      return reference;
+    }
+
+    // primitives are written directly only if their boxed counterparts
+    // would have been written by the default writer too
+    private boolean isDefault(Class<?> type, BsonObject bsonObject, BsonWriter writer) {
+      return BsonObject.lookup(type) == bsonObject && bsonObject.writer() == writer;
+    }
+
+    private int primitivesSize(int length, int bytes) {
+      return length * (BYTES_BYTES + bytes) + IndexKeys.totalSize(length);
+    }
+
+    private void writeElementTo(ByteBuffer buffer, int index, @Nullable Object element) {
+      BsonObject bsonObject = BsonObject.find(element == null
+          ? null
+          : element.getClass());
+      buffer.put(bsonObject.terminal());
+      IndexKeys.writeTo(buffer, index);
+      bsonObject.writer().writeTo(buffer, element);
+    }
+
+    private int elementSize(int index, @Nullable Object element) {
+      BsonObject bsonObject = BsonObject.find(element == null
+          ? null
+          : element.getClass());
+      return BYTES_BYTES + IndexKeys.size(index) + bsonObject.writer().getSize(element);
     }
   },
 
@@ -153,7 +265,7 @@ enum DefaultWriter implements BsonWriter {
     @Override
     public void checkedWriteTo(ByteBuffer buffer, Object reference) {
       int markedPosition = buffer.position();
-      buffer.position(markedPosition + Ints.BYTES);
+      buffer.putInt(0);
       BsonBinary bsonBinary = BsonBinary.find(reference.getClass());
       buffer.put(bsonBinary.terminal());
       bsonBinary.writer().writeTo(buffer, reference);
@@ -186,12 +298,18 @@ enum DefaultWriter implements BsonWriter {
 
     @Override
     public void checkedWriteTo(ByteBuffer buffer, Object reference) {
-      buffer.put(((BsonObjectId) reference).objectId());
+      if (reference instanceof BasicObjectId) {
+        ((BasicObjectId) reference).writeTo(buffer);
+      } else {
+        buffer.put(((BsonObjectId) reference).objectId());
+      }
     }
 
     @Override
     public int getSize(@Nullable Object reference) {
-      return ((BsonObjectId) reference).objectId().capacity();
+      return reference instanceof BasicObjectId
+          ? BasicObjectId.OBJECT_ID_LENGTH
+          : ((BsonObjectId) reference).objectId().remaining();
     }
   },
 
@@ -238,44 +356,12 @@ enum DefaultWriter implements BsonWriter {
 
     @Override
     public void checkedWriteTo(ByteBuffer buffer, Object reference) {
-      Pattern regularExpression = (Pattern) reference;
-      BsonWriter keyWriter = BsonToken.KEY.writer();
-      keyWriter.writeTo(buffer, regularExpression.pattern());
-      keyWriter.writeTo(buffer, flagsToOptions(regularExpression.flags()));
+      RegularExpressions.writeTo(buffer, (Pattern) reference);
     }
 
     @Override
     public int getSize(@Nullable Object reference) {
-      Pattern regularExpression = (Pattern) reference;
-      BsonWriter keyWriter = BsonToken.KEY.writer();
-      return keyWriter.getSize(regularExpression.pattern())
-             + keyWriter.getSize(flagsToOptions(regularExpression.flags()));
-    }
-
-    // @do-not-check-next-line CyclomaticComplexity
-    private String flagsToOptions(int flags) {
-      SortedSet<Character> options = Sets.newTreeSet();
-      if (hasFlag(flags, Pattern.CASE_INSENSITIVE)) {
-        options.add(Character.valueOf('i'));
-      }
-
-      if (hasFlag(flags, Pattern.COMMENTS)) {
-        options.add(Character.valueOf('x'));
-      }
-
-      if (hasFlag(flags, Pattern.DOTALL)) {
-        options.add(Character.valueOf('s'));
-      }
-
-      if (hasFlag(flags, Pattern.MULTILINE)) {
-        options.add(Character.valueOf('m'));
-      }
-
-      return Joiner.on("").join(options);
-    }
-
-    private boolean hasFlag(int flags, int flag) {
-      return (flags & flag) != 0;
+      return RegularExpressions.size((Pattern) reference);
     }
   },
 
@@ -313,12 +399,12 @@ enum DefaultWriter implements BsonWriter {
 
     @Override
     public void checkedWriteTo(ByteBuffer buffer, Object reference) {
-      buffer.put(((BsonTimestamp) reference).timestamp());
+      buffer.putLong(BasicTimestamp.value((BsonTimestamp) reference));
     }
 
     @Override
     public int getSize(@Nullable Object reference) {
-      return ((BsonTimestamp) reference).timestamp().capacity();
+      return BasicTimestamp.TIMESTAMP_LENGTH;
     }
   },
 
@@ -0,0 +1,118 @@
+package com.github.kohanyirobert.ebson;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// the keys of documents (in order) and their index, documents with the same
+// keys share one instance so they only have to keep their values
+final class DocumentShape {
+
+  static final DocumentShape EMPTY = new DocumentShape(new String[0], 0);
+
+  private static final int TABLE_SIZE = 1024;
+  private static final int SLOT_CACHE_SIZE = 8;
+
+  // direct-mapped, a shape replaces the one it collides with which makes the
+  // table bounded and interning lock-free (sharing is best effort only)
+  private static final AtomicReferenceArray<DocumentShape> TABLE =
+      new AtomicReferenceArray<DocumentShape>(TABLE_SIZE);
+
+  private final String[] keys;
+  private final int hash;
+
+  // built on first lookup in shapes above the linear search threshold, racing
+  // threads build equal tables so the last write is just as good
+  private volatile int[] index;
+
+  // the slots of recently found keys, direct-mapped by their hash codes;
+  // slots hold this shape's own keys (not the looked up ones) and are
+  // immutable, so racing threads at worst miss each other's writes
+  private Slot[] slots;
+
+  private DocumentShape(String[] keys, int hash) {
+    this.keys = keys;
+    this.hash = hash;
+  }
+
+  // returns the shared shape of the first 'size' keys (which must be unique)
+  static DocumentShape of(String[] keys, int size) {
+    if (size == 0) {
+      return EMPTY;
+    }
+    int hash = 1;
+    for (int i = 0; i < size; i++) {
+      hash = 31 * hash + keys[i].hashCode();
+    }
+    int slot = KeyIndex.mix(hash) & (TABLE_SIZE - 1);
+    DocumentShape shape = TABLE.get(slot);
+    if (shape != null && shape.matches(keys, size, hash)) {
+      return shape;
+    }
+    String[] copy = new String[size];
+    System.arraycopy(keys, 0, copy, 0, size);
+    shape = new DocumentShape(copy, hash);
+    TABLE.lazySet(slot, shape);
+    return shape;
+  }
+
+  String key(int i) {
+    return keys[i];
+  }
+
+  String[] keys() {
+    return keys;
+  }
+
+  int indexOf(Object key) {
+    Slot[] cache = slots;
+    if (cache == null) {
+      cache = new Slot[SLOT_CACHE_SIZE];
+      slots = cache;
+    }
+    int i = KeyIndex.mix(key.hashCode()) & (SLOT_CACHE_SIZE - 1);
+    Slot slot = cache[i];
+    if (slot != null && (slot.key == key || slot.key.equals(key))) {
+      return slot.index;
+    }
+    int index = find(key);
+    if (index != -1) {
+      cache[i] = new Slot(keys[index], index);
+    }
+    return index;
+  }
+
+  private int find(Object key) {
+    if (keys.length <= KeyIndex.LINEAR_SEARCH_THRESHOLD) {
+      return KeyIndex.linearIndexOf(keys, keys.length, key);
+    }
+    int[] table = index;
+    if (table == null) {
+      table = KeyIndex.build(keys, keys.length);
+      index = table;
+    }
+    return KeyIndex.indexOf(table, keys, key);
+  }
+
+  // keys read by the key table are usually the very same instances
+  private boolean matches(String[] otherKeys, int size, int otherHash) {
+    if (hash != otherHash || keys.length != size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      if (keys[i] != otherKeys[i] && !keys[i].equals(otherKeys[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class Slot {
+
+    private final String key;
+    private final int index;
+
+    Slot(String key, int index) {
+      this.key = key;
+      this.index = index;
+    }
+  }
+}
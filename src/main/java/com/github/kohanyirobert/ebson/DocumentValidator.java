@@ -0,0 +1,270 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nullable;
+
+final class DocumentValidator {
+
+  // the maximum nesting depth of documents accepted by MongoDB
+  static final int MAX_DEPTH = 100;
+
+  private static final int OBJECT_ID_BYTES = 12;
+  private static final int MIN_CODE_WITH_SCOPE_LENGTH = Ints.BYTES + Ints.BYTES + 1 + BsonDocuments.MIN_DOCUMENT_LENGTH;
+
+  private static final BsonValidation VALID = new Result(-1, null);
+
+  private DocumentValidator() {}
+
+  // validates the document at 'buffer's position without changing it and
+  // allocates only if the document is invalid
+  static BsonValidation validate(ByteBuffer buffer) {
+    long result = document(buffer, buffer.position(), buffer.limit(), 0);
+    if (result >= 0) {
+      return VALID;
+    }
+    long failure = ~result;
+    return new Result((int) failure, Failure.values()[(int) (failure >>> Integer.SIZE)].message);
+  }
+
+  // returns the index after the document starting at 'position' or a failure
+  private static long document(ByteBuffer buffer, int position, int limit, int depth) {
+    if (depth > MAX_DEPTH) {
+      return fail(Failure.TOO_DEEP, position);
+    }
+    if (limit - position < Ints.BYTES) {
+      return fail(Failure.TRUNCATED, position);
+    }
+    int length = buffer.getInt(position);
+    if (length < BsonDocuments.MIN_DOCUMENT_LENGTH) {
+      return fail(Failure.DOCUMENT_LENGTH, position);
+    }
+    if (length > limit - position) {
+      return fail(Failure.TRUNCATED, position);
+    }
+    int end = position + length - 1;
+    if (buffer.get(end) != BsonBytes.EOO) {
+      return fail(Failure.DOCUMENT_TERMINATOR, end);
+    }
+
+    int i = position + Ints.BYTES;
+    while (i < end) {
+      byte terminal = buffer.get(i);
+      BsonObject bsonObject = BsonObject.lookup(terminal);
+      if (bsonObject == null) {
+        return fail(terminal == BsonBytes.EOO
+            ? Failure.DOCUMENT_TERMINATOR
+            : Failure.TERMINAL, i);
+      }
+      long next = cstring(buffer, i + 1, end);
+      if (next >= 0) {
+        next = value(bsonObject, buffer, (int) next, end, depth);
+      }
+      if (next < 0) {
+        return next;
+      }
+      i = (int) next;
+    }
+    return end + 1;
+  }
+
+  // @do-not-check-next-line CyclomaticComplexity
+  private static long value(BsonObject bsonObject, ByteBuffer buffer, int position, int limit, int depth) {
+    switch (bsonObject) {
+      case UNDEFINED:
+      case NULL:
+      case MAX_KEY:
+      case MIN_KEY:
+        return position;
+      case BOOLEAN:
+        if (position >= limit) {
+          return fail(Failure.TRUNCATED, position);
+        }
+        byte value = buffer.get(position);
+        return value == BsonBytes.TRUE || value == BsonBytes.FALSE
+            ? position + 1
+            : fail(Failure.BOOLEAN, position);
+      case INT32:
+        return fixed(position, Ints.BYTES, limit);
+      case DOUBLE:
+        return fixed(position, Doubles.BYTES, limit);
+      case UTC_DATE_TIME:
+      case TIMESTAMP:
+      case INT64:
+        return fixed(position, Longs.BYTES, limit);
+      case OBJECT_ID:
+        return fixed(position, OBJECT_ID_BYTES, limit);
+      case STRING:
+      case JAVASCRIPT_CODE:
+      case SYMBOL:
+        return string(buffer, position, limit);
+      case EMBEDDED:
+      case ARRAY:
+        return document(buffer, position, limit, depth + 1);
+      case BINARY:
+        return binary(buffer, position, limit);
+      case DB_POINTER:
+        long next = string(buffer, position, limit);
+        return next < 0
+            ? next
+            : fixed((int) next, OBJECT_ID_BYTES, limit);
+      case REGULAR_EXPRESSION:
+        next = cstring(buffer, position, limit);
+        return next < 0
+            ? next
+            : cstring(buffer, (int) next, limit);
+      case JAVASCRIPT_CODE_WITH_SCOPE:
+        return codeWithScope(buffer, position, limit, depth);
+      default:
+        throw new AssertionError(bsonObject);
+    }
+  }
+
+  private static long fixed(int position, int length, int limit) {
+    return length > limit - position
+        ? fail(Failure.TRUNCATED, position)
+        : position + length;
+  }
+
+  // '\0' terminated UTF-8 string
+  private static long cstring(ByteBuffer buffer, int position, int limit) {
+    int end = position;
+    while (end < limit && buffer.get(end) != BsonBytes.EOO) {
+      end++;
+    }
+    if (end == limit) {
+      return fail(Failure.CSTRING_TERMINATOR, position);
+    }
+    int malformed = Utf8.malformedIndex(buffer, position, end);
+    return malformed == -1
+        ? end + 1
+        : fail(Failure.UTF8, malformed);
+  }
+
+  // length prefixed and '\0' terminated UTF-8 string
+  private static long string(ByteBuffer buffer, int position, int limit) {
+    if (limit - position < Ints.BYTES) {
+      return fail(Failure.TRUNCATED, position);
+    }
+    int length = buffer.getInt(position);
+    if (length < 1) {
+      return fail(Failure.STRING_LENGTH, position);
+    }
+    if (length > limit - position - Ints.BYTES) {
+      return fail(Failure.TRUNCATED, position);
+    }
+    int end = position + Ints.BYTES + length - 1;
+    if (buffer.get(end) != BsonBytes.EOO) {
+      return fail(Failure.STRING_TERMINATOR, end);
+    }
+    int malformed = Utf8.malformedIndex(buffer, position + Ints.BYTES, end);
+    return malformed == -1
+        ? end + 1
+        : fail(Failure.UTF8, malformed);
+  }
+
+  private static long binary(ByteBuffer buffer, int position, int limit) {
+    if (limit - position < Ints.BYTES + 1) {
+      return fail(Failure.TRUNCATED, position);
+    }
+    int length = buffer.getInt(position);
+    if (length < 0) {
+      return fail(Failure.BINARY_LENGTH, position);
+    }
+    if (length > limit - position - Ints.BYTES - 1) {
+      return fail(Failure.TRUNCATED, position);
+    }
+    if (buffer.get(position + Ints.BYTES) == BsonBytes.OLD
+        && (length < Ints.BYTES || buffer.getInt(position + Ints.BYTES + 1) != length - Ints.BYTES)) {
+      return fail(Failure.BINARY_LENGTH, position + Ints.BYTES + 1);
+    }
+    return position + Ints.BYTES + 1 + length;
+  }
+
+  private static long codeWithScope(ByteBuffer buffer, int position, int limit, int depth) {
+    if (limit - position < Ints.BYTES) {
+      return fail(Failure.TRUNCATED, position);
+    }
+    int length = buffer.getInt(position);
+    if (length < MIN_CODE_WITH_SCOPE_LENGTH) {
+      return fail(Failure.CODE_WITH_SCOPE_LENGTH, position);
+    }
+    if (length > limit - position) {
+      return fail(Failure.TRUNCATED, position);
+    }
+    int end = position + length;
+    long next = string(buffer, position + Ints.BYTES, end);
+    if (next >= 0) {
+      next = document(buffer, (int) next, end, depth + 1);
+    }
+    if (next >= 0 && next != end) {
+      return fail(Failure.CODE_WITH_SCOPE_LENGTH, position);
+    }
+    return next;
+  }
+
+  // failures are returned as negative numbers to avoid allocating (and
+  // unwinding the stack) while validating
+  private static long fail(Failure failure, int offset) {
+    return ~((long) failure.ordinal() << Integer.SIZE | offset);
+  }
+
+  private enum Failure {
+
+    TRUNCATED("truncated value"),
+    TOO_DEEP("documents are nested deeper than " + MAX_DEPTH + " levels"),
+    DOCUMENT_LENGTH("invalid document length"),
+    DOCUMENT_TERMINATOR("document terminator does not match the document's length"),
+    TERMINAL("unknown element type"),
+    BOOLEAN("invalid boolean value"),
+    CSTRING_TERMINATOR("unterminated string"),
+    STRING_LENGTH("invalid string length"),
+    STRING_TERMINATOR("string terminator does not match the string's length"),
+    UTF8("malformed UTF-8 sequence"),
+    BINARY_LENGTH("invalid binary length"),
+    CODE_WITH_SCOPE_LENGTH("invalid code with scope length");
+
+    private final String message;
+
+    private Failure(String message) {
+      this.message = message;
+    }
+  }
+
+  private static final class Result implements BsonValidation {
+
+    private final int offset;
+    private final String message;
+
+    Result(int offset, @Nullable String message) {
+      this.offset = offset;
+      this.message = message;
+    }
+
+    @Override
+    public boolean isValid() {
+      return message == null;
+    }
+
+    @Override
+    public int offset() {
+      return offset;
+    }
+
+    @Override
+    public String message() {
+      return message;
+    }
+
+    @Override
+    public String toString() {
+      return isValid()
+          ? "valid"
+          : String.format("invalid at offset %s: %s", Integer.valueOf(offset), message);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Charsets;
+import com.google.common.primitives.Ints;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+final class DocumentWalker {
+
+  private static final int INITIAL_CHARS = 64;
+
+  private final CharsetDecoder decoder = Charsets.UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+  private CharBuffer chars = CharBuffer.allocate(INITIAL_CHARS);
+
+  // the buffer being read and a little-endian view of it
+  private ByteBuffer buffer;
+  private ByteBuffer view;
+
+  DocumentWalker() {}
+
+  // walks the document at 'buffer's position and moves past it
+  void walk(ByteBuffer buffer, BsonVisitor visitor) {
+    DefaultStreamReader reader = new DefaultStreamReader(buffer);
+    visitor.visitStartDocument(null);
+    walkElements(buffer, reader, visitor);
+    reader.exitDocument();
+    visitor.visitEndDocument();
+  }
+
+  // passes the value of 'bsonObject' type (which must not be an embedded
+  // document or an array) at 'position' to 'visitor' using absolute reads
+  // @do-not-check-next-line CyclomaticComplexity
+  void visitValue(ByteBuffer buffer, BsonVisitor visitor, BsonObject bsonObject, String key, int position) {
+    if (this.buffer != buffer) {
+      this.buffer = buffer;
+      view = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+    switch (bsonObject) {
+      case DOUBLE:
+        visitor.visitDouble(key, buffer.getDouble(position));
+        break;
+      case STRING:
+        visitor.visitString(key, chars(position));
+        break;
+      case BINARY:
+        BsonBinary binary = BsonBinary.find(buffer.get(position + Ints.BYTES));
+        visitor.visitBinary(key, binary, view(position + Ints.BYTES + 1, buffer.getInt(position)));
+        break;
+      case OBJECT_ID:
+        visitor.visitObjectId(key, BasicObjectId.readFrom(buffer, position));
+        break;
+      case BOOLEAN:
+        visitor.visitBoolean(key, buffer.get(position) == BsonBytes.TRUE);
+        break;
+      case UTC_DATE_TIME:
+        visitor.visitUtcDateTime(key, buffer.getLong(position));
+        break;
+      case NULL:
+        visitor.visitNull(key);
+        break;
+      case REGULAR_EXPRESSION:
+        view.clear();
+        view.position(position);
+        BsonReader keyReader = BsonToken.KEY.reader();
+        String pattern = (String) keyReader.readFrom(view);
+        visitor.visitRegularExpression(key, pattern, (String) keyReader.readFrom(view));
+        break;
+      case SYMBOL:
+        visitor.visitSymbol(key, chars(position));
+        break;
+      case INT32:
+        visitor.visitInt32(key, buffer.getInt(position));
+        break;
+      case TIMESTAMP:
+        visitor.visitTimestamp(key, buffer.getLong(position));
+        break;
+      case INT64:
+        visitor.visitInt64(key, buffer.getLong(position));
+        break;
+      default:
+        view.clear();
+        view.position(position);
+        visitor.visitValue(key, bsonObject, bsonObject.reader().readFrom(view));
+        break;
+    }
+  }
+
+  private void walkElements(ByteBuffer buffer, DefaultStreamReader reader, BsonVisitor visitor) {
+    BsonObject bsonObject;
+    while ((bsonObject = reader.next()) != null) {
+      String key = reader.key();
+      if (bsonObject == BsonObject.EMBEDDED) {
+        visitor.visitStartDocument(key);
+        reader.enterDocument();
+        walkElements(buffer, reader, visitor);
+        reader.exitDocument();
+        visitor.visitEndDocument();
+      } else if (bsonObject == BsonObject.ARRAY) {
+        visitor.visitStartArray(key);
+        reader.enterDocument();
+        walkElements(buffer, reader, visitor);
+        reader.exitDocument();
+        visitor.visitEndArray();
+      } else {
+        visitValue(buffer, visitor, bsonObject, key, reader.valuePosition());
+      }
+    }
+  }
+
+  private ByteBuffer view(int position, int length) {
+    view.clear();
+    view.limit(position + length).position(position);
+    return view;
+  }
+
+  private CharSequence chars(int position) {
+    ByteBuffer bytes = view(position + Ints.BYTES, buffer.getInt(position) - 1);
+    int maxChars = (int) Math.ceil(bytes.remaining() * (double) decoder.maxCharsPerByte());
+    if (chars.capacity() < maxChars) {
+      chars = CharBuffer.allocate(Math.max(maxChars, chars.capacity() * 2));
+    }
+    chars.clear();
+    decoder.reset();
+    decoder.decode(bytes, chars, true);
+    decoder.flush(chars);
+    chars.flip();
+    return chars;
+  }
+}
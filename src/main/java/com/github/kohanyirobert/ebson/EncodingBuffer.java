@@ -0,0 +1,74 @@
+package com.github.kohanyirobert.ebson;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+final class EncodingBuffer {
+
+  private static final int INITIAL_CAPACITY = 4 * 1024;
+  // large enough for the largest MongoDB document
+  private static final int MAX_RETAINED_CAPACITY = BsonDocuments.MAX_DOCUMENT_LENGTH;
+
+  private static final ThreadLocal<EncodingBuffer> BUFFER = new ThreadLocal<EncodingBuffer>() {
+
+    @Override
+    protected EncodingBuffer initialValue() {
+      return new EncodingBuffer();
+    }
+  };
+
+  private ByteBuffer buffer = allocate(INITIAL_CAPACITY);
+  private boolean inUse;
+
+  private EncodingBuffer() {}
+
+  // writes 'reference' in a single pass into a reused, growing buffer,
+  // nested (re-entrant) invocations on the same thread use a new buffer
+  static EncodingBuffer encode(BsonWriter writer, Object reference) {
+    EncodingBuffer encodingBuffer = BUFFER.get();
+    if (encodingBuffer.inUse) {
+      encodingBuffer = new EncodingBuffer();
+    }
+    encodingBuffer.inUse = true;
+    try {
+      encodingBuffer.write(writer, reference);
+    } catch (RuntimeException e) {
+      encodingBuffer.release();
+      throw e;
+    }
+    return encodingBuffer;
+  }
+
+  // returns the encoded bytes, valid until this buffer is released
+  ByteBuffer bytes() {
+    return buffer;
+  }
+
+  void release() {
+    if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+      buffer = allocate(INITIAL_CAPACITY);
+    }
+    inUse = false;
+  }
+
+  // writes 'reference' in a single pass if it fits the retained buffer (the
+  // usual case once the buffer has grown to the size of typical documents),
+  // otherwise sizes it once and writes it again into a buffer of exactly that
+  // size; a writer overflowing that one is inconsistent with its own size
+  private void write(BsonWriter writer, Object reference) {
+    buffer.clear();
+    try {
+      writer.writeTo(buffer, reference);
+    } catch (BufferOverflowException e) {
+      int size = writer.getSize(reference);
+      buffer = allocate(Math.max(size, Math.min(buffer.capacity() * 2, MAX_RETAINED_CAPACITY)));
+      writer.writeTo(buffer, reference);
+    }
+    buffer.flip();
+  }
+
+  private static ByteBuffer allocate(int capacity) {
+    return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
@@ -0,0 +1,348 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.UnsignedBytes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.CheckForNull;
+
+final class ExternalSorter {
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+  private static final int MIN_STREAM_BUFFER_SIZE = 4 * 1024;
+  // at most this many runs are merged at once (each of them holds an open
+  // file and a buffer), more are merged in passes
+  private static final int MAX_FAN_IN = 64;
+
+  // approximate heap overhead of a record (object headers, references and
+  // the sort key's array header)
+  private static final int RECORD_OVERHEAD = 64;
+
+  private static final Comparator<byte[]> KEY_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+  private static final Comparator<Record> RECORD_COMPARATOR = new Comparator<Record>() {
+
+    @Override
+    public int compare(Record left, Record right) {
+      return KEY_COMPARATOR.compare(left.key, right.key);
+    }
+  };
+
+  private final ReadableByteChannel input;
+  private final String path;
+  private final int parallelism;
+  private final long runBudget;
+  private final int fanIn;
+  private final int mergeBufferSize;
+
+  private final DefaultDecoder decoder = new DefaultDecoder(BsonDocuments.MAX_DOCUMENT_LENGTH);
+  private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+  // the temporary run files that still exist, deleted once sorting ends
+  private final List<File> files = Collections.synchronizedList(Lists.<File>newArrayList());
+
+  ExternalSorter(ReadableByteChannel input, String path, long memoryBudget) {
+    this.input = input;
+    this.path = path;
+    parallelism = Runtime.getRuntime().availableProcessors();
+    // the run being read plus one run being sorted per thread fit the budget
+    runBudget = Math.max(1, memoryBudget / (parallelism + 1));
+    // the buffers of the runs merged at once and of their output fit the
+    // budget too (unless it's smaller than two minimal buffers per run)
+    fanIn = (int) Math.min(MAX_FAN_IN, Math.max(2, memoryBudget / MIN_STREAM_BUFFER_SIZE - 1));
+    mergeBufferSize = (int) Math.min(STREAM_BUFFER_SIZE,
+        Math.max(MIN_STREAM_BUFFER_SIZE, memoryBudget / (fanIn + 1)));
+    chunk.flip();
+  }
+
+  // sorts the documents of 'input' into 'output' spilling sorted runs into
+  // temporary files; equal keys keep their input order
+  void sortTo(WritableByteChannel output) throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    List<File> runs = Lists.newArrayList();
+    Deque<Future<File>> spills = new ArrayDeque<Future<File>>();
+    try {
+      List<Record> run = Lists.newArrayList();
+      long runSize = 0;
+      byte[] document;
+      while ((document = nextDocument()) != null) {
+        Record record = new Record(document, path);
+        run.add(record);
+        runSize += document.length + record.key.length + RECORD_OVERHEAD;
+        if (runSize >= runBudget) {
+          if (spills.size() == parallelism) {
+            runs.add(get(spills.removeFirst()));
+          }
+          spills.addLast(executor.submit(spill(run)));
+          run = Lists.newArrayList();
+          runSize = 0;
+        }
+      }
+
+      if (spills.isEmpty()) {
+        sort(run);
+        OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(output), STREAM_BUFFER_SIZE);
+        for (Record record : run) {
+          stream.write(record.document);
+        }
+        stream.flush();
+        return;
+      }
+
+      if (!run.isEmpty()) {
+        if (spills.size() == parallelism) {
+          runs.add(get(spills.removeFirst()));
+        }
+        spills.addLast(executor.submit(spill(run)));
+      }
+      while (!spills.isEmpty()) {
+        runs.add(get(spills.removeFirst()));
+      }
+      mergeTo(runs, output);
+    } finally {
+      // spills that haven't started never will, the running ones are waited
+      // for (they only finish writing their run) so that no file is left
+      for (Future<File> spill : spills) {
+        spill.cancel(true);
+      }
+      executor.shutdownNow();
+      try {
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      synchronized (files) {
+        for (File file : files) {
+          file.delete();
+        }
+      }
+    }
+  }
+
+  @CheckForNull
+  private byte[] nextDocument() throws IOException {
+    ByteBuffer frame;
+    while ((frame = decoder.frame(chunk)) == null) {
+      if (!ChannelIterator.fill(input, chunk)) {
+        if (decoder.pending() > 0) {
+          throw new BufferUnderflowException();
+        }
+        return null;
+      }
+    }
+    try {
+      byte[] document = new byte[frame.getInt(frame.position())];
+      frame.get(document);
+      return document;
+    } finally {
+      decoder.release(frame);
+    }
+  }
+
+  private static void sort(List<Record> run) {
+    Collections.sort(run, RECORD_COMPARATOR);
+  }
+
+  // sorts 'run' and writes it (sort keys included) to a temporary file
+  private Callable<File> spill(final List<Record> run) {
+    return new Callable<File>() {
+
+      @Override
+      public File call() throws IOException {
+        sort(run);
+        File file = newRunFile();
+        DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(file), STREAM_BUFFER_SIZE));
+        try {
+          for (Record record : run) {
+            writeRecord(stream, record.key, record.document);
+          }
+        } finally {
+          stream.close();
+        }
+        return file;
+      }
+    };
+  }
+
+  private File newRunFile() throws IOException {
+    File file = File.createTempFile("ebson-sort", ".run");
+    files.add(file);
+    return file;
+  }
+
+  // merges consecutive groups of at most 'fanIn' runs into intermediate runs
+  // (which keeps them in input order) until the rest can be merged into
+  // 'output' at once
+  private void mergeTo(List<File> runs, WritableByteChannel output) throws IOException {
+    while (runs.size() > fanIn) {
+      List<File> merged = Lists.newArrayList();
+      for (int i = 0; i < runs.size(); i += fanIn) {
+        List<File> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+        if (group.size() == 1) {
+          merged.add(group.get(0));
+          continue;
+        }
+        File file = newRunFile();
+        DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(file), mergeBufferSize));
+        try {
+          merge(group, stream, true);
+        } finally {
+          stream.close();
+        }
+        for (File run : group) {
+          run.delete();
+          files.remove(run);
+        }
+        merged.add(file);
+      }
+      runs = merged;
+    }
+    DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(
+        Channels.newOutputStream(output), mergeBufferSize));
+    merge(runs, stream, false);
+    stream.flush();
+  }
+
+  // writes the records of 'runs' into 'stream' in order, with their sort keys
+  // if 'keys' is true
+  private void merge(List<File> runs, DataOutputStream stream, boolean keys) throws IOException {
+    PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(runs.size());
+    try {
+      for (int i = 0; i < runs.size(); i++) {
+        advance(new RunReader(runs.get(i), i, mergeBufferSize), queue);
+      }
+      RunReader reader;
+      while ((reader = queue.poll()) != null) {
+        if (keys) {
+          writeRecord(stream, reader.key, reader.document);
+        } else {
+          stream.write(reader.document);
+        }
+        advance(reader, queue);
+      }
+    } finally {
+      for (RunReader reader : queue) {
+        reader.close();
+      }
+    }
+  }
+
+  // queues 'reader' if it has another record, closes it otherwise (or if it
+  // fails to read it)
+  private static void advance(RunReader reader, PriorityQueue<RunReader> queue) throws IOException {
+    boolean advanced = false;
+    try {
+      advanced = reader.advance();
+    } finally {
+      if (advanced) {
+        queue.add(reader);
+      } else {
+        reader.close();
+      }
+    }
+  }
+
+  private static void writeRecord(DataOutputStream stream, byte[] key, byte[] document) throws IOException {
+    stream.writeInt(key.length);
+    stream.write(key);
+    stream.write(document);
+  }
+
+  private static File get(Future<File> spill) throws IOException {
+    try {
+      return spill.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  private static final class Record {
+
+    private final byte[] document;
+    private final byte[] key;
+
+    Record(byte[] document, String path) {
+      this.document = document;
+      key = SortKeyEncoder.encode(ByteBuffer.wrap(document).order(ByteOrder.LITTLE_ENDIAN), path);
+    }
+  }
+
+  private static final class RunReader implements Comparable<RunReader> {
+
+    private final DataInputStream stream;
+    private final int index;
+    private final byte[] lengthBytes = new byte[Integer.SIZE / Byte.SIZE];
+
+    private byte[] key;
+    private byte[] document;
+
+    RunReader(File file, int index, int bufferSize) throws IOException {
+      stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file), bufferSize));
+      this.index = index;
+    }
+
+    boolean advance() throws IOException {
+      int keyLength;
+      try {
+        keyLength = stream.readInt();
+      } catch (EOFException e) {
+        return false;
+      }
+      key = new byte[keyLength];
+      stream.readFully(key);
+      stream.readFully(lengthBytes);
+      document = new byte[ByteBuffer.wrap(lengthBytes).order(ByteOrder.LITTLE_ENDIAN).getInt()];
+      System.arraycopy(lengthBytes, 0, document, 0, lengthBytes.length);
+      stream.readFully(document, lengthBytes.length, document.length - lengthBytes.length);
+      return true;
+    }
+
+    // ties are broken by run order (runs are in input order) to keep the
+    // sort stable
+    @Override
+    public int compareTo(RunReader other) {
+      int result = KEY_COMPARATOR.compare(key, other.key);
+      return result != 0
+          ? result
+          : index < other.index ? -1 : index == other.index ? 0 : 1;
+    }
+
+    void close() throws IOException {
+      stream.close();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.github.kohanyirobert.ebson;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+final class IndexKeys {
+
+  private static final int TABLE_SIZE = 1024;
+  private static final byte[][] TABLE = new byte[TABLE_SIZE][];
+
+  static {
+    for (int i = 0; i < TABLE_SIZE; i++) {
+      byte[] key = new byte[size(i)];
+      int j = key.length - 1;
+      for (int value = i; j > 0; value /= 10) {
+        key[--j] = (byte) ('0' + value % 10);
+      }
+      TABLE[i] = key;
+    }
+  }
+
+  private IndexKeys() {}
+
+  // writes 'index' as a '\0' terminated decimal key (array element name)
+  static void writeTo(ByteBuffer buffer, int index) {
+    if (index < TABLE_SIZE) {
+      buffer.put(TABLE[index]);
+      return;
+    }
+
+    int size = size(index);
+    if (buffer.remaining() < size) {
+      throw new BufferOverflowException();
+    }
+    int position = buffer.position();
+    int i = position + size - 1;
+    buffer.put(i, BsonBytes.EOO);
+    for (int value = index; i > position; value /= 10) {
+      buffer.put(--i, (byte) ('0' + value % 10));
+    }
+    buffer.position(position + size);
+  }
+
+  // returns the size of the key of the element at 'index' (with '\0')
+  static int size(int index) {
+    int digits = 1;
+    for (int value = index; value >= 10; value /= 10) {
+      digits++;
+    }
+    return digits + 1;
+  }
+
+  // returns the size of the keys of 'count' consecutive elements
+  static int totalSize(int count) {
+    int size = 2 * count;
+    for (long bound = 10; bound < count; bound *= 10) {
+      size += count - bound;
+    }
+    return size;
+  }
+}
@@ -0,0 +1,62 @@
+package com.github.kohanyirobert.ebson;
+
+final class KeyIndex {
+
+  // keys of documents with at most this many keys are searched linearly
+  static final int LINEAR_SEARCH_THRESHOLD = 8;
+
+  private KeyIndex() {}
+
+  // returns an open-addressing (linear probing) table of the first 'size'
+  // keys, slots hold key indexes plus one (zero marks an empty slot)
+  static int[] build(String[] keys, int size) {
+    int[] table = new int[Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1];
+    for (int i = 0; i < size; i++) {
+      insert(table, keys[i], i);
+    }
+    return table;
+  }
+
+  // whether 'table' can hold 'size' keys without getting more than half full
+  static boolean fits(int[] table, int size) {
+    return size * 2 <= table.length;
+  }
+
+  static void insert(int[] table, String key, int i) {
+    int mask = table.length - 1;
+    int slot = mix(key.hashCode()) & mask;
+    while (table[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    table[slot] = i + 1;
+  }
+
+  static int indexOf(int[] table, String[] keys, Object key) {
+    int mask = table.length - 1;
+    int slot = mix(key.hashCode()) & mask;
+    int entry;
+    while ((entry = table[slot]) != 0) {
+      if (keys[entry - 1].equals(key)) {
+        return entry - 1;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  static int linearIndexOf(String[] keys, int size, Object key) {
+    for (int i = 0; i < size; i++) {
+      if (keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // spreads the bits of 'hash' so that its low bits can be used to index
+  // power of two sized tables
+  static int mix(int hash) {
+    int h = hash * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+}
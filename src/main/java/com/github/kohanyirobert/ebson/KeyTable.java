@@ -0,0 +1,92 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Charsets;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+final class KeyTable {
+
+  private static final int TABLE_SIZE = 4096;
+  private static final int MAX_KEY_LENGTH = 64;
+
+  private static final AtomicReferenceArray<Key> TABLE = new AtomicReferenceArray<Key>(TABLE_SIZE);
+  private static final AtomicReferenceArray<Key> ENCODED_TABLE = new AtomicReferenceArray<Key>(TABLE_SIZE);
+
+  private KeyTable() {}
+
+  // reads a '\0' terminated UTF-8 string from 'buffer' (including the
+  // terminator) and returns a shared instance for frequently read keys
+  static String readFrom(ByteBuffer buffer) {
+    int start = buffer.position();
+    int end = start;
+    int hash = 0;
+    byte read;
+    while ((read = buffer.get(end)) != BsonBytes.EOO) {
+      hash = 31 * hash + read;
+      end++;
+    }
+    int length = end - start;
+    buffer.position(end + 1);
+    if (length > MAX_KEY_LENGTH) {
+      return Utf8.decode(buffer, start, length);
+    }
+
+    int slot = KeyIndex.mix(hash) & (TABLE_SIZE - 1);
+    Key key = TABLE.get(slot);
+    if (key != null && key.matches(buffer, start, length)) {
+      return key.string;
+    }
+
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(start + i);
+    }
+    key = new Key(bytes, new String(bytes, Charsets.UTF_8));
+    TABLE.lazySet(slot, key);
+    return key.string;
+  }
+
+  // writes 'key' as a '\0' terminated UTF-8 string into 'buffer' and
+  // remembers the encoded bytes of frequently written keys
+  static void writeTo(ByteBuffer buffer, String key) {
+    if (key.length() > MAX_KEY_LENGTH) {
+      Utf8.encode(key, buffer);
+      buffer.put(BsonBytes.EOO);
+      return;
+    }
+
+    int slot = KeyIndex.mix(key.hashCode()) & (TABLE_SIZE - 1);
+    Key encoded = ENCODED_TABLE.get(slot);
+    if (encoded == null || !encoded.string.equals(key)) {
+      byte[] bytes = new byte[Utf8.encodedLength(key)];
+      Utf8.encode(key, ByteBuffer.wrap(bytes));
+      encoded = new Key(bytes, key);
+      ENCODED_TABLE.lazySet(slot, encoded);
+    }
+    buffer.put(encoded.bytes).put(BsonBytes.EOO);
+  }
+
+  private static final class Key {
+
+    private final byte[] bytes;
+    private final String string;
+
+    Key(byte[] bytes, String string) {
+      this.bytes = bytes;
+      this.string = string;
+    }
+
+    boolean matches(ByteBuffer buffer, int start, int length) {
+      if (bytes.length != length) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (bytes[i] != buffer.get(start + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,316 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import com.google.common.collect.UnmodifiableIterator;
+import com.google.common.primitives.Ints;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+final class LazyDocument extends AbstractMap<String, Object> implements BsonRawDocument {
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private final ByteBuffer buffer;
+
+  private String[] keys;
+  private int[] positions;
+  private byte[] terminals;
+  private Object[] values;
+  private boolean[] decoded;
+  private Map<String, Integer> indexes;
+
+  LazyDocument(ByteBuffer buffer) {
+    this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  @Override
+  public synchronized ByteBuffer bytes() {
+    ByteBuffer bytes = buffer.duplicate();
+    bytes.clear();
+    return bytes.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    Object value = get(key);
+    Preconditions.checkArgument(
+        type == null
+            ? value == null
+            : type.isInstance(value),
+        "expected '%s' instead of '%s'",
+        value == null
+            ? null
+            : value.getClass(), type);
+    return type == null ? null : type.cast(value);
+  }
+
+  @Override
+  public Object get(Object key) {
+    Preconditions.checkArgument(containsKey(key), "key: '%s' is missing", key);
+    return value(index().get(key).intValue());
+  }
+
+  @Override
+  public int getInt(Object key) {
+    return getInt(existingIndexOf(key));
+  }
+
+  @Override
+  public int getInt(Object key, int defaultValue) {
+    int i = indexOf(key);
+    return i == -1 ? defaultValue : getInt(i);
+  }
+
+  @Override
+  public long getLong(Object key) {
+    return getLong(existingIndexOf(key));
+  }
+
+  @Override
+  public long getLong(Object key, long defaultValue) {
+    int i = indexOf(key);
+    return i == -1 ? defaultValue : getLong(i);
+  }
+
+  @Override
+  public double getDouble(Object key) {
+    return getDouble(existingIndexOf(key));
+  }
+
+  @Override
+  public double getDouble(Object key, double defaultValue) {
+    int i = indexOf(key);
+    return i == -1 ? defaultValue : getDouble(i);
+  }
+
+  @Override
+  public boolean getBoolean(Object key) {
+    return getBoolean(existingIndexOf(key));
+  }
+
+  @Override
+  public boolean getBoolean(Object key, boolean defaultValue) {
+    int i = indexOf(key);
+    return i == -1 ? defaultValue : getBoolean(i);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    Preconditions.checkNotNull(key, "null key");
+    if (!String.class.isInstance(key)) {
+      throw new ClassCastException(String.format("key: '%s' is not a string", key));
+    }
+    return index().containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return index().size();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    final Map<String, Integer> index = index();
+    return new AbstractSet<String>() {
+
+      @Override
+      public Iterator<String> iterator() {
+        return Iterators.forArray(Arrays.copyOf(keys, index.size()));
+      }
+
+      @Override
+      public boolean contains(Object object) {
+        return index.containsKey(object);
+      }
+
+      @Override
+      public int size() {
+        return index.size();
+      }
+    };
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    final int size = size();
+    return new AbstractSet<Entry<String, Object>>() {
+
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new UnmodifiableIterator<Entry<String, Object>>() {
+
+          private int i;
+
+          @Override
+          public boolean hasNext() {
+            return i < size;
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+            Preconditions.checkElementIndex(i, size);
+            Entry<String, Object> entry = Maps.immutableEntry(keys[i], value(i));
+            i++;
+            return entry;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Object remove(Object key) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ? extends Object> map) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("{")
+        .append(Joiner.on(", ")
+            .withKeyValueSeparator(": ")
+            .useForNull("null")
+            .join(this))
+        .append("}")
+        .toString();
+  }
+
+  private synchronized Map<String, Integer> index() {
+    if (indexes == null) {
+      keys = new String[INITIAL_CAPACITY];
+      positions = new int[INITIAL_CAPACITY];
+      terminals = new byte[INITIAL_CAPACITY];
+      Map<String, Integer> index = Maps.newHashMap();
+      BsonReader keyReader = BsonToken.KEY.reader();
+      int position = Ints.BYTES;
+      while (buffer.get(position) != BsonBytes.EOO) {
+        byte terminal = buffer.get(position);
+        buffer.position(position + 1);
+        String key = (String) keyReader.readFrom(buffer);
+        if (index.containsKey(key)) {
+          throw new IllegalArgumentException(String.format("key: '%s' is already present", key));
+        }
+        int valuePosition = buffer.position();
+        int i = index.size();
+        if (i == keys.length) {
+          keys = Arrays.copyOf(keys, i * 2);
+          positions = Arrays.copyOf(positions, i * 2);
+          terminals = Arrays.copyOf(terminals, i * 2);
+        }
+        keys[i] = key;
+        positions[i] = valuePosition;
+        terminals[i] = terminal;
+        index.put(key, Integer.valueOf(i));
+        position = valuePosition + BsonObject.find(terminal).valueLength(buffer, valuePosition);
+      }
+      values = new Object[index.size()];
+      decoded = new boolean[index.size()];
+      indexes = index;
+    }
+    return indexes;
+  }
+
+  private int existingIndexOf(Object key) {
+    int i = indexOf(key);
+    if (i == -1) {
+      throw new IllegalArgumentException(String.format("key: '%s' is missing", key));
+    }
+    return i;
+  }
+
+  private int indexOf(Object key) {
+    if (!containsKey(key)) {
+      return -1;
+    }
+    return index().get(key).intValue();
+  }
+
+  // the following read values of the default readers directly from the
+  // buffer (without decoding and caching them)
+
+  private synchronized int getInt(int i) {
+    return isDefault(i, BsonBytes.INT32, DefaultReader.INT32)
+        ? buffer.getInt(positions[i])
+        : boxed(i, Integer.class).intValue();
+  }
+
+  private synchronized long getLong(int i) {
+    return isDefault(i, BsonBytes.INT64, DefaultReader.INT64)
+        ? buffer.getLong(positions[i])
+        : boxed(i, Long.class).longValue();
+  }
+
+  private synchronized double getDouble(int i) {
+    return isDefault(i, BsonBytes.DOUBLE, DefaultReader.DOUBLE)
+        ? buffer.getDouble(positions[i])
+        : boxed(i, Double.class).doubleValue();
+  }
+
+  private synchronized boolean getBoolean(int i) {
+    return isDefault(i, BsonBytes.BOOLEAN, DefaultReader.BOOLEAN)
+        ? buffer.get(positions[i]) == BsonBytes.TRUE
+        : boxed(i, Boolean.class).booleanValue();
+  }
+
+  private boolean isDefault(int i, byte terminal, BsonReader reader) {
+    return terminals[i] == terminal && BsonObject.find(terminal).reader() == reader;
+  }
+
+  private <T> T boxed(int i, Class<T> type) {
+    Object value = value(i);
+    if (!type.isInstance(value)) {
+      throw new IllegalArgumentException(String.format("expected '%s' instead of '%s'",
+          value == null ? null : value.getClass(), type));
+    }
+    return type.cast(value);
+  }
+
+  @Nullable
+  private synchronized Object value(int i) {
+    if (!decoded[i]) {
+      BsonObject bsonObject = BsonObject.find(terminals[i]);
+      buffer.position(positions[i]);
+      if (bsonObject == BsonObject.EMBEDDED && bsonObject.reader() == DefaultReader.DOCUMENT) {
+        int length = bsonObject.valueLength(buffer, positions[i]);
+        buffer.limit(positions[i] + length);
+        values[i] = new LazyDocument(buffer.slice());
+        buffer.limit(buffer.capacity());
+      } else {
+        values[i] = bsonObject.reader().readFrom(buffer);
+      }
+      decoded[i] = true;
+    }
+    return values[i];
+  }
+}
@@ -0,0 +1,246 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.UnsignedBytes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+final class MappedIndex implements BsonIndex {
+
+  // maximum key length, maximum document length, entry count and the length
+  // of the key bytes
+  private static final int HEADER_BYTES = Ints.BYTES + Ints.BYTES + Longs.BYTES + Longs.BYTES;
+  private static final int CHUNK_SIZE = 64 * 1024;
+  private static final int MAX_WINDOW_SIZE = 1024 * 1024 * 1024;
+  private static final int DATA_WINDOW_SIZE = 256 * 1024 * 1024;
+
+  private static final Comparator<byte[]> KEY_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+  private static final Comparator<Entry> ENTRY_COMPARATOR = new Comparator<Entry>() {
+
+    @Override
+    public int compare(Entry left, Entry right) {
+      int result = KEY_COMPARATOR.compare(left.key, right.key);
+      return result != 0
+          ? result
+          : Longs.compare(left.offset, right.offset);
+    }
+  };
+
+  private final int maxKeyLength;
+  private final long size;
+  private final ByteBuffer[] keyOffsetWindows;
+  private final ByteBuffer[] offsetWindows;
+  private final ByteBuffer[] keyWindows;
+  private final ByteBuffer[] dataWindows;
+
+  private MappedIndex(int maxKeyLength, long size, ByteBuffer[] keyOffsetWindows, ByteBuffer[] offsetWindows,
+      ByteBuffer[] keyWindows, ByteBuffer[] dataWindows) {
+    this.maxKeyLength = maxKeyLength;
+    this.size = size;
+    this.keyOffsetWindows = keyOffsetWindows;
+    this.offsetWindows = offsetWindows;
+    this.keyWindows = keyWindows;
+    this.dataWindows = dataWindows;
+  }
+
+  // writes the index of 'data's documents by the value at 'path': a header,
+  // the offsets of the keys (one more than there are entries, so that the
+  // length of every key is the difference of two adjacent offsets), the file
+  // offsets of the documents and the keys themselves, all sorted by key and
+  // file offset
+  static void build(FileChannel data, WritableByteChannel index, String path) throws IOException {
+    long end = data.size();
+    MappedWindow window = new MappedWindow(data, end);
+    List<Entry> entries = Lists.newArrayList();
+    int maxKeyLength = 0;
+    int maxDocumentLength = 0;
+    long keysLength = 0;
+    long position = 0;
+    while (position < end) {
+      ByteBuffer buffer = window.map(position, Ints.BYTES);
+      int length = buffer.getInt(buffer.position());
+      if (length < BsonDocuments.MIN_DOCUMENT_LENGTH || length > BsonDocuments.MAX_DOCUMENT_LENGTH) {
+        throw new IllegalArgumentException(String.format(
+            "invalid document length: '%s' at offset: '%s'", Integer.valueOf(length), Long.valueOf(position)));
+      }
+      byte[] key = SortKeyEncoder.encode(window.map(position, length), path);
+      entries.add(new Entry(key, position));
+      maxKeyLength = Math.max(maxKeyLength, key.length);
+      maxDocumentLength = Math.max(maxDocumentLength, length);
+      keysLength += key.length;
+      position += length;
+    }
+    Collections.sort(entries, ENTRY_COMPARATOR);
+
+    ByteBuffer chunk = ByteBuffer.allocate(Math.max(CHUNK_SIZE, maxKeyLength)).order(ByteOrder.LITTLE_ENDIAN);
+    chunk.putInt(maxKeyLength).putInt(maxDocumentLength).putLong(entries.size()).putLong(keysLength);
+    long keyOffset = 0;
+    for (Entry entry : entries) {
+      putLong(chunk, index, keyOffset);
+      keyOffset += entry.key.length;
+    }
+    putLong(chunk, index, keyOffset);
+    for (Entry entry : entries) {
+      putLong(chunk, index, entry.offset);
+    }
+    for (Entry entry : entries) {
+      if (chunk.remaining() < entry.key.length) {
+        flush(chunk, index);
+      }
+      chunk.put(entry.key);
+    }
+    flush(chunk, index);
+  }
+
+  static MappedIndex open(FileChannel data, FileChannel index) throws IOException {
+    if (index.size() < HEADER_BYTES) {
+      throw new IllegalArgumentException("invalid index header");
+    }
+    ByteBuffer header = index.map(MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    int maxKeyLength = header.getInt();
+    int maxDocumentLength = header.getInt();
+    long size = header.getLong();
+    long keysLength = header.getLong();
+    if (maxKeyLength < 0 || maxDocumentLength < 0 || size < 0 || keysLength < 0
+        || index.size() != HEADER_BYTES + (2 * size + 1) * Longs.BYTES + keysLength) {
+      throw new IllegalArgumentException("invalid index header");
+    }
+
+    long keyOffsetsStart = HEADER_BYTES;
+    long offsetsStart = keyOffsetsStart + (size + 1) * Longs.BYTES;
+    long keysStart = offsetsStart + size * Longs.BYTES;
+
+    // key windows overlap by the maximum key length so that every key is
+    // contained by the window its offset falls into, and so do data windows
+    // by the maximum document length
+    return new MappedIndex(maxKeyLength, size,
+        map(index, keyOffsetsStart, (size + 1) * Longs.BYTES, MAX_WINDOW_SIZE, 0),
+        map(index, offsetsStart, size * Longs.BYTES, MAX_WINDOW_SIZE, 0),
+        map(index, keysStart, keysLength, MAX_WINDOW_SIZE, maxKeyLength),
+        map(data, 0, data.size(), DATA_WINDOW_SIZE, maxDocumentLength));
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public long offset(@Nullable Object key) {
+    byte[] sortKey = sortKey(key);
+    if (sortKey.length > maxKeyLength) {
+      return -1;
+    }
+
+    // finds the first entry not less than 'sortKey'
+    long low = 0;
+    long high = size;
+    while (low < high) {
+      long middle = (low + high) >>> 1;
+      if (compare(middle, sortKey) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low < size && compare(low, sortKey) == 0
+        ? getLong(offsetWindows, low)
+        : -1;
+  }
+
+  @Override
+  public BsonDocument get(@Nullable Object key) {
+    long offset = offset(key);
+    if (offset == -1) {
+      return null;
+    }
+    ByteBuffer document = dataWindows[(int) (offset / DATA_WINDOW_SIZE)].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    document.position((int) (offset % DATA_WINDOW_SIZE));
+    return BsonDocuments.readFrom(document.slice().order(ByteOrder.LITTLE_ENDIAN));
+  }
+
+  // compares the key of the entry at 'i' with 'sortKey'
+  private int compare(long i, byte[] sortKey) {
+    long keyOffset = getLong(keyOffsetWindows, i);
+    int length = (int) (getLong(keyOffsetWindows, i + 1) - keyOffset);
+    ByteBuffer keys = keyWindows[(int) (keyOffset / MAX_WINDOW_SIZE)];
+    int position = (int) (keyOffset % MAX_WINDOW_SIZE);
+    for (int j = 0; j < length && j < sortKey.length; j++) {
+      int left = keys.get(position + j) & 0xff;
+      int right = sortKey[j] & 0xff;
+      if (left != right) {
+        return left - right;
+      }
+    }
+    return length - sortKey.length;
+  }
+
+  // windows never split a long, the window size being a multiple of its size
+  private static long getLong(ByteBuffer[] windows, long i) {
+    long position = i * Longs.BYTES;
+    return windows[(int) (position / MAX_WINDOW_SIZE)].getLong((int) (position % MAX_WINDOW_SIZE));
+  }
+
+  // maps 'length' bytes of 'channel' from 'start' in windows of 'windowSize'
+  // bytes extended by 'overlap' bytes (where available)
+  private static ByteBuffer[] map(FileChannel channel, long start, long length, int windowSize, int overlap)
+      throws IOException {
+    ByteBuffer[] windows = new ByteBuffer[(int) ((length + windowSize - 1) / windowSize)];
+    for (int i = 0; i < windows.length; i++) {
+      long first = (long) i * windowSize;
+      long count = Math.min((long) windowSize + overlap, length - first);
+      windows[i] = channel.map(MapMode.READ_ONLY, start + first, count).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    return windows;
+  }
+
+  // keys are serialized by the writer of their type and encoded the same way
+  // indexed values are
+  private static byte[] sortKey(@Nullable Object key) {
+    BsonObject bsonObject = BsonObject.find(key == null ? null : key.getClass());
+    EncodingBuffer encodingBuffer = EncodingBuffer.encode(bsonObject.writer(), key);
+    try {
+      return SortKeyEncoder.encode(encodingBuffer.bytes(), bsonObject, 0);
+    } finally {
+      encodingBuffer.release();
+    }
+  }
+
+  private static void putLong(ByteBuffer chunk, WritableByteChannel channel, long value) throws IOException {
+    if (chunk.remaining() < Longs.BYTES) {
+      flush(chunk, channel);
+    }
+    chunk.putLong(value);
+  }
+
+  private static void flush(ByteBuffer chunk, WritableByteChannel channel) throws IOException {
+    chunk.flip();
+    while (chunk.hasRemaining()) {
+      channel.write(chunk);
+    }
+    chunk.clear();
+  }
+
+  private static final class Entry {
+
+    private final byte[] key;
+    private final long offset;
+
+    Entry(byte[] key, long offset) {
+      this.key = key;
+      this.offset = offset;
+    }
+  }
+}
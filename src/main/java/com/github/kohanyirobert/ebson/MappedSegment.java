@@ -0,0 +1,86 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.List;
+
+final class MappedSegment implements Iterable<BsonDocument> {
+
+  private final FileChannel channel;
+  private final long start;
+  private final long end;
+
+  MappedSegment(FileChannel channel, long start, long end) {
+    this.channel = channel;
+    this.start = start;
+    this.end = end;
+  }
+
+  // splits the documents of 'channel' into at most 'parts' segments of
+  // roughly equal size, every segment starts and ends at a document boundary
+  static List<MappedSegment> split(FileChannel channel, int parts) throws IOException {
+    long size = channel.size();
+    List<MappedSegment> segments = Lists.newArrayList();
+    MappedWindow window = new MappedWindow(channel, size);
+    long segmentStart = 0;
+    long position = 0;
+    for (int part = 1; part <= parts && position < size; part++) {
+      long target = size / parts * part;
+      while (position < size && (position < target || part == parts)) {
+        position += length(window, position);
+      }
+      if (position > segmentStart) {
+        segments.add(new MappedSegment(channel, segmentStart, position));
+        segmentStart = position;
+      }
+    }
+    return segments;
+  }
+
+  @Override
+  public Iterator<BsonDocument> iterator() {
+    final MappedWindow window = new MappedWindow(channel, end);
+    return new AbstractIterator<BsonDocument>() {
+
+      private long position = start;
+
+      @Override
+      protected BsonDocument computeNext() {
+        if (position >= end) {
+          return endOfData();
+        }
+        try {
+          int length = length(window, position);
+          ByteBuffer buffer = window.map(position, length);
+          position += length;
+          return BsonDocuments.readFrom(buffer);
+        } catch (IOException e) {
+          throw Throwables.propagate(e);
+        }
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return String.format("[%s, %s)", Long.valueOf(start), Long.valueOf(end));
+  }
+
+  private static int length(MappedWindow window, long position) throws IOException {
+    ByteBuffer buffer = window.map(position, Ints.BYTES);
+    int length = buffer.getInt(buffer.position());
+    if (length < BsonDocuments.MIN_DOCUMENT_LENGTH) {
+      throw new IllegalArgumentException(String.format(
+          "invalid document length: '%s' at offset: '%s'",
+          Integer.valueOf(length), Long.valueOf(position)));
+    }
+    return length;
+  }
+}
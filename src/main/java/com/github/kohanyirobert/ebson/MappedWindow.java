@@ -0,0 +1,41 @@
+package com.github.kohanyirobert.ebson;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+final class MappedWindow {
+
+  private static final long WINDOW_SIZE = 256 * 1024 * 1024;
+
+  private final FileChannel channel;
+  private final long end;
+
+  private ByteBuffer window;
+  private long windowStart;
+
+  MappedWindow(FileChannel channel, long end) {
+    this.channel = channel;
+    this.end = end;
+  }
+
+  // returns a little-endian buffer positioned at 'position' (a file offset)
+  // that contains at least 'length' bytes, the file is (re)mapped as needed
+  ByteBuffer map(long position, int length) throws IOException {
+    if (window == null
+        || position < windowStart
+        || position + length > windowStart + window.capacity()) {
+      long size = Math.min(Math.max(WINDOW_SIZE, length), end - position);
+      if (size < length) {
+        throw new BufferUnderflowException();
+      }
+      window = channel.map(MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+      windowStart = position;
+    }
+    window.limit(window.capacity()).position((int) (position - windowStart));
+    return window;
+  }
+}
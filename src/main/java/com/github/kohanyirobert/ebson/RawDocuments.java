@@ -0,0 +1,217 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+
+import java.nio.ByteBuffer;
+
+final class RawDocuments {
+
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+  private static final long SEED = 0x9e3779b97f4a7c15L;
+
+  private RawDocuments() {}
+
+  // hashes the document at 'position' with absolute reads; if field order is
+  // ignored the elements of (embedded) documents are combined commutatively
+  static long hash(ByteBuffer buffer, int position, boolean ignoreFieldOrder) {
+    int length = buffer.getInt(position);
+    return ignoreFieldOrder
+        ? unorderedHash(buffer, position)
+        : fmix(hash(buffer, position, length, SEED) ^ length);
+  }
+
+  // compares the documents at 'position' and 'otherPosition'; if field order
+  // is ignored (embedded) documents are equal if they have the same keys and
+  // values in any order (array elements are always compared in order)
+  static boolean equals(ByteBuffer buffer, int position, ByteBuffer other, int otherPosition,
+      boolean ignoreFieldOrder) {
+    int length = buffer.getInt(position);
+    if (length != other.getInt(otherPosition)) {
+      return false;
+    }
+    return ignoreFieldOrder
+        ? unorderedEquals(buffer, position, other, otherPosition)
+        : bytesEqual(buffer, position, other, otherPosition, length);
+  }
+
+  private static long unorderedHash(ByteBuffer buffer, int document) {
+    long hash = 0;
+    int count = 0;
+    int position = document + Ints.BYTES;
+    byte terminal;
+    while ((terminal = buffer.get(position)) != BsonBytes.EOO) {
+      int keyEnd = keyEnd(buffer, position + 1);
+      int valuePosition = keyEnd + 1;
+      long elementHash = hash(buffer, position, valuePosition - position, SEED);
+      elementHash = mix(elementHash, valueHash(buffer, terminal, valuePosition));
+      hash += fmix(elementHash);
+      count++;
+      position = valuePosition + BsonObject.find(terminal).valueLength(buffer, valuePosition);
+    }
+    return fmix(hash ^ count);
+  }
+
+  // arrays keep their element order, but documents in them still ignore it
+  private static long arrayHash(ByteBuffer buffer, int array) {
+    long hash = SEED;
+    int position = array + Ints.BYTES;
+    byte terminal;
+    while ((terminal = buffer.get(position)) != BsonBytes.EOO) {
+      int valuePosition = keyEnd(buffer, position + 1) + 1;
+      hash = mix(hash, terminal);
+      hash = mix(hash, valueHash(buffer, terminal, valuePosition));
+      position = valuePosition + BsonObject.find(terminal).valueLength(buffer, valuePosition);
+    }
+    return fmix(hash);
+  }
+
+  private static long valueHash(ByteBuffer buffer, byte terminal, int position) {
+    if (terminal == BsonBytes.EMBEDDED) {
+      return unorderedHash(buffer, position);
+    } else if (terminal == BsonBytes.ARRAY) {
+      return arrayHash(buffer, position);
+    }
+    int length = BsonObject.find(terminal).valueLength(buffer, position);
+    return fmix(hash(buffer, position, length, SEED) ^ length);
+  }
+
+  private static boolean unorderedEquals(ByteBuffer buffer, int document, ByteBuffer other, int otherDocument) {
+    int count = 0;
+    int position = document + Ints.BYTES;
+    byte terminal;
+    while ((terminal = buffer.get(position)) != BsonBytes.EOO) {
+      int keyStart = position + 1;
+      int keyEnd = keyEnd(buffer, keyStart);
+      int otherPosition = find(other, otherDocument, buffer, keyStart, keyEnd - keyStart);
+      if (otherPosition == -1 || other.get(otherPosition) != terminal) {
+        return false;
+      }
+      int valuePosition = keyEnd + 1;
+      if (!valueEquals(buffer, terminal, valuePosition, other, otherPosition + 1 + keyEnd - keyStart + 1)) {
+        return false;
+      }
+      count++;
+      position = valuePosition + BsonObject.find(terminal).valueLength(buffer, valuePosition);
+    }
+    return count == count(other, otherDocument);
+  }
+
+  private static boolean arrayEquals(ByteBuffer buffer, int array, ByteBuffer other, int otherArray) {
+    int position = array + Ints.BYTES;
+    int otherPosition = otherArray + Ints.BYTES;
+    byte terminal;
+    while ((terminal = buffer.get(position)) != BsonBytes.EOO) {
+      if (other.get(otherPosition) != terminal) {
+        return false;
+      }
+      int valuePosition = keyEnd(buffer, position + 1) + 1;
+      int otherValuePosition = keyEnd(other, otherPosition + 1) + 1;
+      if (!valueEquals(buffer, terminal, valuePosition, other, otherValuePosition)) {
+        return false;
+      }
+      BsonObject bsonObject = BsonObject.find(terminal);
+      position = valuePosition + bsonObject.valueLength(buffer, valuePosition);
+      otherPosition = otherValuePosition + bsonObject.valueLength(other, otherValuePosition);
+    }
+    return other.get(otherPosition) == BsonBytes.EOO;
+  }
+
+  private static boolean valueEquals(ByteBuffer buffer, byte terminal, int position,
+      ByteBuffer other, int otherPosition) {
+    if (terminal == BsonBytes.EMBEDDED) {
+      return buffer.getInt(position) == other.getInt(otherPosition)
+          && unorderedEquals(buffer, position, other, otherPosition);
+    } else if (terminal == BsonBytes.ARRAY) {
+      return arrayEquals(buffer, position, other, otherPosition);
+    }
+    BsonObject bsonObject = BsonObject.find(terminal);
+    int length = bsonObject.valueLength(buffer, position);
+    return length == bsonObject.valueLength(other, otherPosition)
+        && bytesEqual(buffer, position, other, otherPosition, length);
+  }
+
+  // returns the position of the element with the given key or -1
+  private static int find(ByteBuffer buffer, int document, ByteBuffer keyBuffer, int keyStart, int keyLength) {
+    int position = document + Ints.BYTES;
+    byte terminal;
+    while ((terminal = buffer.get(position)) != BsonBytes.EOO) {
+      int keyEnd = keyEnd(buffer, position + 1);
+      if (keyEnd - position - 1 == keyLength && bytesEqual(buffer, position + 1, keyBuffer, keyStart, keyLength)) {
+        return position;
+      }
+      position = keyEnd + 1 + BsonObject.find(terminal).valueLength(buffer, keyEnd + 1);
+    }
+    return -1;
+  }
+
+  private static int count(ByteBuffer buffer, int document) {
+    int count = 0;
+    int position = document + Ints.BYTES;
+    byte terminal;
+    while ((terminal = buffer.get(position)) != BsonBytes.EOO) {
+      int valuePosition = keyEnd(buffer, position + 1) + 1;
+      count++;
+      position = valuePosition + BsonObject.find(terminal).valueLength(buffer, valuePosition);
+    }
+    return count;
+  }
+
+  private static int keyEnd(ByteBuffer buffer, int position) {
+    int end = position;
+    while (buffer.get(end) != BsonBytes.EOO) {
+      end++;
+    }
+    return end;
+  }
+
+  private static boolean bytesEqual(ByteBuffer buffer, int position, ByteBuffer other, int otherPosition, int length) {
+    int i = 0;
+    for (; i + Longs.BYTES <= length; i += Longs.BYTES) {
+      if (buffer.getLong(position + i) != other.getLong(otherPosition + i)) {
+        return false;
+      }
+    }
+    for (; i < length; i++) {
+      if (buffer.get(position + i) != other.get(otherPosition + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // murmur3 style hashing of eight byte words (read in the buffer's order,
+  // which is always little-endian here) and the remaining bytes
+  private static long hash(ByteBuffer buffer, int position, int length, long seed) {
+    long hash = seed;
+    int i = 0;
+    for (; i + Longs.BYTES <= length; i += Longs.BYTES) {
+      hash = mix(hash, buffer.getLong(position + i));
+    }
+    long tail = 0;
+    for (int shift = 0; i < length; i++, shift += Byte.SIZE) {
+      tail |= (buffer.get(position + i) & 0xffL) << shift;
+    }
+    return mix(hash, tail);
+  }
+
+  private static long mix(long hash, long value) {
+    long k = value * C1;
+    k = Long.rotateLeft(k, 31);
+    k *= C2;
+    long h = hash ^ k;
+    h = Long.rotateLeft(h, 27);
+    return h * 5 + 0x52dce729;
+  }
+
+  private static long fmix(long hash) {
+    long h = hash;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,150 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.regex.Pattern;
+
+final class RegularExpressions {
+
+  private static final int MAXIMUM_SIZE = 1024;
+
+  // compiled patterns are immutable and thread-safe, so they can be shared
+  private static final Cache<Key, Pattern> COMPILED = CacheBuilder.newBuilder()
+      .maximumSize(MAXIMUM_SIZE)
+      .build();
+
+  // weak keys are compared by identity which is fine since patterns don't
+  // override equals
+  private static final Cache<Pattern, byte[]> ENCODED = CacheBuilder.newBuilder()
+      .maximumSize(MAXIMUM_SIZE)
+      .weakKeys()
+      .build();
+
+  private RegularExpressions() {}
+
+  // returns a (shared) pattern compiled from 'pattern' and BSON 'options'
+  static Pattern compile(String pattern, String options) {
+    Key key = new Key(pattern, optionsToFlags(options));
+    Pattern compiled = COMPILED.getIfPresent(key);
+    if (compiled == null) {
+      compiled = Pattern.compile(pattern, key.flags);
+      COMPILED.put(key, compiled);
+    }
+    return compiled;
+  }
+
+  // the cached bytes are only valid as long as keys are written by the
+  // default key writer, a replaced one is used just like for keys
+  static void writeTo(ByteBuffer buffer, Pattern pattern) {
+    BsonWriter keyWriter = BsonToken.KEY.writer();
+    if (keyWriter != DefaultWriter.KEY) {
+      keyWriter.writeTo(buffer, pattern.pattern());
+      keyWriter.writeTo(buffer, flagsToOptions(pattern.flags()));
+    } else {
+      buffer.put(encode(pattern));
+    }
+  }
+
+  static int size(Pattern pattern) {
+    BsonWriter keyWriter = BsonToken.KEY.writer();
+    if (keyWriter != DefaultWriter.KEY) {
+      return keyWriter.getSize(pattern.pattern()) + keyWriter.getSize(flagsToOptions(pattern.flags()));
+    }
+    return encode(pattern).length;
+  }
+
+  // returns the pattern and options of 'pattern' as '\0' terminated UTF-8
+  // strings
+  private static byte[] encode(Pattern pattern) {
+    byte[] encoded = ENCODED.getIfPresent(pattern);
+    if (encoded == null) {
+      String string = pattern.pattern();
+      String options = flagsToOptions(pattern.flags());
+      int length = Utf8.encodedLength(string);
+      encoded = new byte[length + 1 + options.length() + 1];
+      ByteBuffer buffer = ByteBuffer.wrap(encoded);
+      Utf8.encode(string, buffer);
+      buffer.put(BsonBytes.EOO);
+      Utf8.encode(options, buffer);
+      buffer.put(BsonBytes.EOO);
+      ENCODED.put(pattern, encoded);
+    }
+    return encoded;
+  }
+
+  private static int optionsToFlags(String options) {
+    int flags = 0;
+    for (int i = 0; i < options.length(); i++) {
+      flags |= optionToFlag(options.charAt(i));
+    }
+    return flags;
+  }
+
+  private static int optionToFlag(char option) {
+    switch (option) {
+      case 'i':
+        return Pattern.CASE_INSENSITIVE;
+      case 'm':
+        return Pattern.MULTILINE;
+      case 's':
+        return Pattern.DOTALL;
+      case 'x':
+        return Pattern.COMMENTS;
+      default:
+        return 0;
+    }
+  }
+
+  // options are in alphabetical order
+  private static String flagsToOptions(int flags) {
+    StringBuilder options = new StringBuilder(4);
+    if (hasFlag(flags, Pattern.CASE_INSENSITIVE)) {
+      options.append('i');
+    }
+
+    if (hasFlag(flags, Pattern.MULTILINE)) {
+      options.append('m');
+    }
+
+    if (hasFlag(flags, Pattern.DOTALL)) {
+      options.append('s');
+    }
+
+    if (hasFlag(flags, Pattern.COMMENTS)) {
+      options.append('x');
+    }
+
+    return options.toString();
+  }
+
+  private static boolean hasFlag(int flags, int flag) {
+    return (flags & flag) != 0;
+  }
+
+  private static final class Key {
+
+    private final String pattern;
+    private final int flags;
+
+    Key(String pattern, int flags) {
+      this.pattern = pattern;
+      this.flags = flags;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) object;
+      return flags == other.flags && pattern.equals(other.pattern);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * pattern.hashCode() + flags;
+    }
+  }
+}
@@ -0,0 +1,337 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Charsets;
+import com.google.common.primitives.Ints;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+final class SortKeyEncoder {
+
+  // type classes in MongoDB's cross-type comparison order
+  private static final byte MIN_KEY = 1;
+  private static final byte UNDEFINED = 2;
+  private static final byte NULL = 7;
+  private static final byte NUMBER = 12;
+  private static final byte STRING = 17;
+  private static final byte EMBEDDED = 22;
+  private static final byte ARRAY = 27;
+  private static final byte BINARY = 32;
+  private static final byte OBJECT_ID = 37;
+  private static final byte BOOLEAN = 42;
+  private static final byte UTC_DATE_TIME = 47;
+  private static final byte TIMESTAMP = 49;
+  private static final byte REGULAR_EXPRESSION = 52;
+  private static final byte DB_POINTER = 57;
+  private static final byte JAVASCRIPT_CODE = 62;
+  private static final byte JAVASCRIPT_CODE_WITH_SCOPE = 67;
+  private static final byte MAX_KEY = 102;
+
+  // numbers are split into NaN, doubles below the range of longs, values in
+  // the range of longs (integral part and fraction) and doubles above it
+  private static final byte NAN = 0;
+  private static final byte BELOW_LONGS = 1;
+  private static final byte LONGS = 2;
+  private static final byte ABOVE_LONGS = 3;
+  private static final double TWO_TO_THE_63 = 0x1p63;
+
+  private static final byte END = 0;
+  private static final byte ESCAPE = (byte) 0xff;
+  private static final int OBJECT_ID_BYTES = 12;
+
+  private byte[] bytes = new byte[64];
+  private int size;
+
+  private SortKeyEncoder() {}
+
+  // returns the sort key of the value at 'path' (dot separated keys) in the
+  // document starting at 'buffer's position, missing values sort as null
+  static byte[] encode(ByteBuffer buffer, String path) {
+    byte[] keys = path.getBytes(Charsets.UTF_8);
+    SortKeyEncoder encoder = new SortKeyEncoder();
+    int element = find(buffer, buffer.position(), keys);
+    if (element == -1) {
+      encoder.put(NULL);
+    } else {
+      int position = element + 1;
+      while (buffer.get(position++) != BsonBytes.EOO) {}
+      encoder.value(buffer, BsonObject.find(buffer.get(element)), position);
+    }
+    return Arrays.copyOf(encoder.bytes, encoder.size);
+  }
+
+  // returns the sort key of a value of 'bsonObject' type at 'position'
+  static byte[] encode(ByteBuffer buffer, BsonObject bsonObject, int position) {
+    SortKeyEncoder encoder = new SortKeyEncoder();
+    encoder.value(buffer, bsonObject, position);
+    return Arrays.copyOf(encoder.bytes, encoder.size);
+  }
+
+  // returns the position of the terminal of the element at 'keys'
+  private static int find(ByteBuffer buffer, int document, byte[] keys) {
+    int keyStart = 0;
+    int position = document;
+    while (true) {
+      int keyEnd = keyStart;
+      while (keyEnd < keys.length && keys[keyEnd] != '.') {
+        keyEnd++;
+      }
+      int element = findElement(buffer, position, keys, keyStart, keyEnd);
+      if (element == -1 || keyEnd == keys.length) {
+        return element;
+      }
+      byte terminal = buffer.get(element);
+      if (terminal != BsonBytes.EMBEDDED && terminal != BsonBytes.ARRAY) {
+        return -1;
+      }
+      position = element + 1 + keyEnd - keyStart + 1;
+      keyStart = keyEnd + 1;
+    }
+  }
+
+  private static int findElement(ByteBuffer buffer, int document, byte[] keys, int keyStart, int keyEnd) {
+    int position = document + Ints.BYTES;
+    byte terminal;
+    while ((terminal = buffer.get(position)) != BsonBytes.EOO) {
+      int i = position + 1;
+      int j = keyStart;
+      while (j < keyEnd && buffer.get(i) == keys[j]) {
+        i++;
+        j++;
+      }
+      boolean matches = j == keyEnd && buffer.get(i) == BsonBytes.EOO;
+      if (matches) {
+        return position;
+      }
+      while (buffer.get(i) != BsonBytes.EOO) {
+        i++;
+      }
+      i++;
+      position = i + BsonObject.find(terminal).valueLength(buffer, i);
+    }
+    return -1;
+  }
+
+  private void value(ByteBuffer buffer, BsonObject bsonObject, int position) {
+    put(typeClass(bsonObject));
+    payload(buffer, bsonObject, position);
+  }
+
+  // @do-not-check-next-line CyclomaticComplexity
+  private static byte typeClass(BsonObject bsonObject) {
+    switch (bsonObject) {
+      case MIN_KEY:
+        return MIN_KEY;
+      case UNDEFINED:
+        return UNDEFINED;
+      case NULL:
+        return NULL;
+      case INT32:
+      case INT64:
+      case DOUBLE:
+        return NUMBER;
+      case STRING:
+      case SYMBOL:
+        return STRING;
+      case EMBEDDED:
+        return EMBEDDED;
+      case ARRAY:
+        return ARRAY;
+      case BINARY:
+        return BINARY;
+      case OBJECT_ID:
+        return OBJECT_ID;
+      case BOOLEAN:
+        return BOOLEAN;
+      case UTC_DATE_TIME:
+        return UTC_DATE_TIME;
+      case TIMESTAMP:
+        return TIMESTAMP;
+      case REGULAR_EXPRESSION:
+        return REGULAR_EXPRESSION;
+      case DB_POINTER:
+        return DB_POINTER;
+      case JAVASCRIPT_CODE:
+        return JAVASCRIPT_CODE;
+      case JAVASCRIPT_CODE_WITH_SCOPE:
+        return JAVASCRIPT_CODE_WITH_SCOPE;
+      case MAX_KEY:
+        return MAX_KEY;
+      default:
+        throw new AssertionError(bsonObject);
+    }
+  }
+
+  // @do-not-check-next-line CyclomaticComplexity
+  private void payload(ByteBuffer buffer, BsonObject bsonObject, int position) {
+    switch (bsonObject) {
+      case INT32:
+        number(buffer.getInt(position));
+        break;
+      case INT64:
+        number(buffer.getLong(position));
+        break;
+      case DOUBLE:
+        number(buffer.getDouble(position));
+        break;
+      case STRING:
+      case SYMBOL:
+      case JAVASCRIPT_CODE:
+        string(buffer, position);
+        break;
+      case EMBEDDED:
+        document(buffer, position, true);
+        break;
+      case ARRAY:
+        document(buffer, position, false);
+        break;
+      case BINARY:
+        // compared by length, subtype and bytes
+        int length = buffer.getInt(position);
+        putInt(length);
+        putBytes(buffer, position + Ints.BYTES, 1 + length);
+        break;
+      case OBJECT_ID:
+        putBytes(buffer, position, OBJECT_ID_BYTES);
+        break;
+      case BOOLEAN:
+        put(buffer.get(position));
+        break;
+      case UTC_DATE_TIME:
+        putLong(buffer.getLong(position) ^ Long.MIN_VALUE);
+        break;
+      case TIMESTAMP:
+        // compared as unsigned numbers
+        putLong(buffer.getLong(position));
+        break;
+      case REGULAR_EXPRESSION:
+        int end = position;
+        while (buffer.get(end) != BsonBytes.EOO) {
+          end++;
+        }
+        escaped(buffer, position, end);
+        int options = end + 1;
+        end = options;
+        while (buffer.get(end) != BsonBytes.EOO) {
+          end++;
+        }
+        escaped(buffer, options, end);
+        break;
+      case DB_POINTER:
+        string(buffer, position);
+        putBytes(buffer, position + Ints.BYTES + buffer.getInt(position), OBJECT_ID_BYTES);
+        break;
+      case JAVASCRIPT_CODE_WITH_SCOPE:
+        int code = position + Ints.BYTES;
+        string(buffer, code);
+        document(buffer, code + Ints.BYTES + buffer.getInt(code), true);
+        break;
+      default:
+        // min key, max key, null and undefined have no payload
+        break;
+    }
+  }
+
+  // elements are compared by type, key (unless it's an array) and value,
+  // shorter documents sort first
+  private void document(ByteBuffer buffer, int document, boolean withKeys) {
+    int position = document + Ints.BYTES;
+    byte terminal;
+    while ((terminal = buffer.get(position)) != BsonBytes.EOO) {
+      int keyEnd = position + 1;
+      while (buffer.get(keyEnd) != BsonBytes.EOO) {
+        keyEnd++;
+      }
+      BsonObject bsonObject = BsonObject.find(terminal);
+      put(typeClass(bsonObject));
+      if (withKeys) {
+        escaped(buffer, position + 1, keyEnd);
+      }
+      payload(buffer, bsonObject, keyEnd + 1);
+      position = keyEnd + 1 + bsonObject.valueLength(buffer, keyEnd + 1);
+    }
+    put(END);
+  }
+
+  private void number(long value) {
+    put(LONGS);
+    putLong(value ^ Long.MIN_VALUE);
+    putLong(0);
+  }
+
+  private void number(double value) {
+    if (Double.isNaN(value)) {
+      put(NAN);
+    } else if (value < -TWO_TO_THE_63) {
+      put(BELOW_LONGS);
+      putLong(sortable(value));
+    } else if (value >= TWO_TO_THE_63) {
+      put(ABOVE_LONGS);
+      putLong(sortable(value));
+    } else {
+      double floor = Math.floor(value);
+      put(LONGS);
+      putLong((long) floor ^ Long.MIN_VALUE);
+      // non-negative so its bits sort the same way as its value
+      putLong(Double.doubleToLongBits(value - floor + 0.0));
+    }
+  }
+
+  private static long sortable(double value) {
+    long bits = Double.doubleToLongBits(value);
+    return bits < 0
+        ? ~bits
+        : bits ^ Long.MIN_VALUE;
+  }
+
+  private void string(ByteBuffer buffer, int position) {
+    int start = position + Ints.BYTES;
+    escaped(buffer, start, start + buffer.getInt(position) - 1);
+  }
+
+  // escapes '\0' bytes as '\0\xff' and terminates with '\0\0' so that no key
+  // is the prefix of another
+  private void escaped(ByteBuffer buffer, int start, int end) {
+    for (int i = start; i < end; i++) {
+      byte b = buffer.get(i);
+      put(b);
+      if (b == END) {
+        put(ESCAPE);
+      }
+    }
+    put(END);
+    put(END);
+  }
+
+  private void put(byte b) {
+    ensureCapacity(1);
+    bytes[size++] = b;
+  }
+
+  private void putInt(int value) {
+    ensureCapacity(Ints.BYTES);
+    for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+      bytes[size++] = (byte) (value >>> shift);
+    }
+  }
+
+  private void putLong(long value) {
+    ensureCapacity(Long.SIZE / Byte.SIZE);
+    for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+      bytes[size++] = (byte) (value >>> shift);
+    }
+  }
+
+  private void putBytes(ByteBuffer buffer, int position, int length) {
+    ensureCapacity(length);
+    for (int i = 0; i < length; i++) {
+      bytes[size++] = buffer.get(position + i);
+    }
+  }
+
+  private void ensureCapacity(int length) {
+    if (size + length > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+    }
+  }
+}
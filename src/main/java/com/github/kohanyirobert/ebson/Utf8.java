@@ -0,0 +1,170 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Charsets;
+
+import java.nio.ByteBuffer;
+
+final class Utf8 {
+
+  private Utf8() {}
+
+  // decodes 'length' bytes starting at 'position' without changing the
+  // buffer's position; heap buffers are decoded without an extra copy
+  static String decode(ByteBuffer buffer, int position, int length) {
+    if (buffer.hasArray()) {
+      return new String(buffer.array(), buffer.arrayOffset() + position, length, Charsets.UTF_8);
+    }
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(position + i);
+    }
+    return new String(bytes, Charsets.UTF_8);
+  }
+
+  // returns the index of the first byte of the first malformed sequence
+  // (overlong forms, surrogates and truncated sequences included) between
+  // 'position' and 'end' or -1 if the bytes are well-formed
+  // @do-not-check-next-line CyclomaticComplexity
+  static int malformedIndex(ByteBuffer buffer, int position, int end) {
+    int i = position;
+    while (i < end) {
+      int b = buffer.get(i);
+      if (b >= 0) {
+        i++;
+        continue;
+      }
+      b &= 0xff;
+      int length;
+      int min = 0x80;
+      int max = 0xbf;
+      if (b < 0xc2) {
+        return i;
+      } else if (b < 0xe0) {
+        length = 2;
+      } else if (b < 0xf0) {
+        length = 3;
+        if (b == 0xe0) {
+          min = 0xa0;
+        } else if (b == 0xed) {
+          max = 0x9f;
+        }
+      } else if (b < 0xf5) {
+        length = 4;
+        if (b == 0xf0) {
+          min = 0x90;
+        } else if (b == 0xf4) {
+          max = 0x8f;
+        }
+      } else {
+        return i;
+      }
+      if (end - i < length) {
+        return i;
+      }
+      int second = buffer.get(i + 1) & 0xff;
+      if (second < min || second > max) {
+        return i;
+      }
+      for (int j = 2; j < length; j++) {
+        if ((buffer.get(i + j) & 0xc0) != 0x80) {
+          return i;
+        }
+      }
+      i += length;
+    }
+    return -1;
+  }
+
+  // returns the number of bytes 'chars' is encoded into, unpaired surrogates
+  // count as a single '?' byte just as with String#getBytes
+  static int encodedLength(CharSequence chars) {
+    int length = chars.length();
+    int encodedLength = length;
+    for (int i = 0; i < length; i++) {
+      char c = chars.charAt(i);
+      if (c >= 0x80) {
+        if (c < 0x800) {
+          encodedLength++;
+        } else if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(chars.charAt(i + 1))) {
+          encodedLength += 2;
+          i++;
+        } else if (!Character.isSurrogate(c)) {
+          encodedLength += 2;
+        }
+      }
+    }
+    return encodedLength;
+  }
+
+  // encodes 'chars' into 'buffer' starting at its position (which gets
+  // advanced), heap buffers with enough room are written without bounds
+  // checks on every byte
+  static void encode(CharSequence chars, ByteBuffer buffer) {
+    int length = chars.length();
+    if (buffer.hasArray() && buffer.remaining() >= length * 3) {
+      byte[] array = buffer.array();
+      int offset = buffer.arrayOffset() + buffer.position();
+      int end = encode(chars, array, offset);
+      buffer.position(buffer.position() + end - offset);
+      return;
+    }
+    for (int i = 0; i < length; i++) {
+      char c = chars.charAt(i);
+      if (c < 0x80) {
+        buffer.put((byte) c);
+      } else if (c < 0x800) {
+        buffer.put((byte) (0xc0 | c >>> 6));
+        buffer.put((byte) (0x80 | c & 0x3f));
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(chars.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+          buffer.put((byte) (0xf0 | codePoint >>> 18));
+          buffer.put((byte) (0x80 | codePoint >>> 12 & 0x3f));
+          buffer.put((byte) (0x80 | codePoint >>> 6 & 0x3f));
+          buffer.put((byte) (0x80 | codePoint & 0x3f));
+        } else {
+          buffer.put((byte) '?');
+        }
+      } else {
+        buffer.put((byte) (0xe0 | c >>> 12));
+        buffer.put((byte) (0x80 | c >>> 6 & 0x3f));
+        buffer.put((byte) (0x80 | c & 0x3f));
+      }
+    }
+  }
+
+  private static int encode(CharSequence chars, byte[] array, int offset) {
+    int length = chars.length();
+    int j = offset;
+    for (int i = 0; i < length; i++) {
+      char c = chars.charAt(i);
+      if (c < 0x80) {
+        array[j++] = (byte) c;
+      } else if (c < 0x800) {
+        array[j++] = (byte) (0xc0 | c >>> 6);
+        array[j++] = (byte) (0x80 | c & 0x3f);
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(chars.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+          array[j++] = (byte) (0xf0 | codePoint >>> 18);
+          array[j++] = (byte) (0x80 | codePoint >>> 12 & 0x3f);
+          array[j++] = (byte) (0x80 | codePoint >>> 6 & 0x3f);
+          array[j++] = (byte) (0x80 | codePoint & 0x3f);
+        } else {
+          array[j++] = (byte) '?';
+        }
+      } else {
+        array[j++] = (byte) (0xe0 | c >>> 12);
+        array[j++] = (byte) (0x80 | c >>> 6 & 0x3f);
+        array[j++] = (byte) (0x80 | c & 0x3f);
+      }
+    }
+    return j;
+  }
+}
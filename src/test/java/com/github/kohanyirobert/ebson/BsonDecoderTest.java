@@ -0,0 +1,246 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public final class BsonDecoderTest extends AbstractBsonTest {
+
+  private final List<BsonDocument> documents = Lists.newArrayList();
+
+  public BsonDecoderTest() {
+    for (int i = 0; i < 100; i++) {
+      documents.add(BsonDocuments.of(
+          "i", Integer.valueOf(i),
+          "s", new String(new char[BsonRandom.nextInt(1000)]).replace('\0', 'x')));
+    }
+  }
+
+  @Test
+  public void decode_randomChunks() {
+    ByteBuffer buffer = write();
+    BsonDecoder decoder = BsonDocuments.decoder();
+    List<BsonDocument> decoded = Lists.newArrayList();
+    while (buffer.hasRemaining()) {
+      ByteBuffer chunk = chunk(buffer, 1 + BsonRandom.nextInt(700));
+      BsonDocument document;
+      while ((document = decoder.decode(chunk)) != null) {
+        decoded.add(document);
+      }
+      assertFalse(chunk.hasRemaining());
+    }
+    assertEquals(documents, decoded);
+    assertEquals(0, decoder.pending());
+  }
+
+  @Test
+  public void decode_singleByteChunks() {
+    ByteBuffer buffer = write();
+    BsonDecoder decoder = BsonDocuments.decoder();
+    List<BsonDocument> decoded = Lists.newArrayList();
+    while (buffer.hasRemaining()) {
+      BsonDocument document = decoder.decode(chunk(buffer, 1));
+      if (document != null) {
+        decoded.add(document);
+      }
+    }
+    assertEquals(documents, decoded);
+  }
+
+  @Test
+  public void decode_withVisitor() {
+    ByteBuffer buffer = write();
+    BsonDecoder decoder = BsonDocuments.decoder();
+    final int[] count = new int[1];
+    BsonVisitor visitor = new BsonVisitor.Adapter() {
+
+      @Override
+      public void visitInt32(String key, int value) {
+        assertEquals(count[0]++, value);
+      }
+    };
+    ByteBuffer chunk = chunk(buffer, 3);
+    assertFalse(decoder.decode(chunk, visitor));
+    assertEquals(3, decoder.pending());
+    chunk = chunk(buffer, buffer.remaining());
+    while (decoder.decode(chunk, visitor)) {
+      assertTrue(count[0] <= documents.size());
+    }
+    assertEquals(documents.size(), count[0]);
+  }
+
+  @Test
+  public void decode_withVisitor_singleByteChunksMatchVisit() {
+    BsonDocument document = BsonDocuments.builder()
+        .put("double", Double.valueOf(4.2))
+        .put("string", "árvíztűrő")
+        .put("embedded", BsonDocuments.of("int32", Integer.valueOf(42), "empty", BsonDocuments.of()))
+        .put("array", Arrays.asList(Long.valueOf(1), Boolean.FALSE, Arrays.asList("x")))
+        .put("binary", new byte[] {1, 2, 3})
+        .put("date", new Date(42))
+        .put("null", null)
+        .put("regex", Pattern.compile("^42$", Pattern.CASE_INSENSITIVE))
+        .build();
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    BsonDocuments.writeTo(buffer, document);
+    buffer.flip();
+    RecordingVisitor expected = new RecordingVisitor();
+    BsonDocuments.visit(buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN), expected);
+
+    BsonDecoder decoder = BsonDocuments.decoder();
+    RecordingVisitor actual = new RecordingVisitor();
+    int completed = 0;
+    while (buffer.hasRemaining()) {
+      if (decoder.decode(chunk(buffer, 1), actual)) {
+        completed++;
+      }
+    }
+    assertEquals(1, completed);
+    assertEquals(expected.events.toString(), actual.events.toString());
+    assertEquals(0, decoder.pending());
+  }
+
+  @Test
+  public void decode_withVisitor_emitsElementsBeforeDocumentCompletes() {
+    BsonDocument document = BsonDocuments.of(
+        "i", Integer.valueOf(42),
+        "s", new String(new char[1000]).replace('\0', 'x'));
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    BsonDocuments.writeTo(buffer, document);
+    buffer.flip();
+    RecordingVisitor visitor = new RecordingVisitor();
+    BsonDecoder decoder = BsonDocuments.decoder();
+    // length prefix, the whole int32 element and a part of the string
+    assertFalse(decoder.decode(chunk(buffer, 4 + 7 + 100), visitor));
+    assertEquals("{null i=42 ", visitor.events.toString());
+    // only the incomplete string element is kept
+    assertEquals(100, decoder.pending());
+    assertTrue(decoder.decode(chunk(buffer, buffer.remaining()), visitor));
+    assertEquals(0, decoder.pending());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void decode_withVisitor_elementOverrunsDocument() {
+    ByteBuffer buffer = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(8).put(BsonBytes.INT32).put((byte) 'a').put(BsonBytes.EOO).putInt(1).put(BsonBytes.EOO);
+    buffer.flip();
+    BsonDocuments.decoder().decode(buffer, new RecordingVisitor());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void decode_tooLongDocument() {
+    ByteBuffer buffer = write();
+    BsonDocuments.decoder(16).decode(buffer);
+  }
+
+  @Test
+  public void decode_emptyChunk() {
+    assertNull(BsonDocuments.decoder().decode(ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN)));
+  }
+
+  private ByteBuffer write() {
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    for (BsonDocument document : documents) {
+      BsonDocuments.writeTo(buffer, document);
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  private static final class RecordingVisitor extends BsonVisitor.Adapter {
+
+    private final StringBuilder events = new StringBuilder();
+
+    RecordingVisitor() {}
+
+    @Override
+    public void visitStartDocument(String key) {
+      events.append('{').append(key).append(' ');
+    }
+
+    @Override
+    public void visitEndDocument() {
+      events.append("} ");
+    }
+
+    @Override
+    public void visitStartArray(String key) {
+      events.append('[').append(key).append(' ');
+    }
+
+    @Override
+    public void visitEndArray() {
+      events.append("] ");
+    }
+
+    @Override
+    public void visitDouble(String key, double value) {
+      append(key, Double.valueOf(value));
+    }
+
+    @Override
+    public void visitString(String key, CharSequence value) {
+      append(key, value);
+    }
+
+    @Override
+    public void visitBinary(String key, BsonBinary binary, ByteBuffer value) {
+      append(key, binary + ":" + value.remaining() + ":" + value.get(value.position()));
+    }
+
+    @Override
+    public void visitBoolean(String key, boolean value) {
+      append(key, Boolean.valueOf(value));
+    }
+
+    @Override
+    public void visitUtcDateTime(String key, long value) {
+      append(key, Long.valueOf(value));
+    }
+
+    @Override
+    public void visitNull(String key) {
+      append(key, null);
+    }
+
+    @Override
+    public void visitRegularExpression(String key, String pattern, String options) {
+      append(key, pattern + "/" + options);
+    }
+
+    @Override
+    public void visitInt32(String key, int value) {
+      append(key, Integer.valueOf(value));
+    }
+
+    @Override
+    public void visitInt64(String key, long value) {
+      append(key, Long.valueOf(value));
+    }
+
+    private void append(String key, Object value) {
+      events.append(key).append('=').append(value).append(' ');
+    }
+  }
+
+  private static ByteBuffer chunk(ByteBuffer buffer, int length) {
+    byte[] bytes = new byte[Math.min(length, buffer.remaining())];
+    buffer.get(bytes);
+    return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
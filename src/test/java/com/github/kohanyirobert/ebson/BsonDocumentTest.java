@@ -1,10 +1,15 @@
 package com.github.kohanyirobert.ebson;
 
+import com.google.common.collect.Maps;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
+import java.util.Map;
+
 public final class BsonDocumentTest {
 
   private static final String STRING_KEY = "string-key";
@@ -55,4 +60,64 @@ public final class BsonDocumentTest {
   public void get_keyPresent_withNotStringKey() {
     document1.get(new Object());
   }
+
+  @Test
+  public void get_largeDocument() {
+    BsonDocument.Builder builder = BsonDocuments.builder();
+    for (int i = 0; i < 100; i++) {
+      builder.put(String.valueOf(i), Integer.valueOf(i));
+    }
+    BsonDocument document = builder.build();
+    for (int i = 0; i < 100; i++) {
+      assertEquals(Integer.valueOf(i), document.get(String.valueOf(i)));
+    }
+    assertFalse(document.containsKey(MISSING_KEY));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void put_duplicateKey_largeDocument() {
+    BsonDocument.Builder builder = BsonDocuments.builder();
+    for (int i = 0; i < 100; i++) {
+      builder.put(String.valueOf(i), null);
+    }
+    builder.put("42", null);
+  }
+
+  @Test
+  public void build_notAffectedByLaterPuts() {
+    BsonDocument.Builder builder = BsonDocuments.builder().put(STRING_KEY, STRING_VALUE);
+    BsonDocument document = builder.build();
+    builder.put(NULL_KEY, null);
+    assertEquals(1, document.size());
+    assertEquals(2, builder.build().size());
+  }
+
+  @Test
+  public void equals_andHashCode_withOtherMaps() {
+    Map<String, Object> map = Maps.newLinkedHashMap();
+    map.put(NULL_KEY, null);
+    map.put(STRING_KEY, STRING_VALUE);
+    BsonDocument document = BsonDocuments.of(STRING_KEY, STRING_VALUE, NULL_KEY, null);
+    assertEquals(map, document);
+    assertEquals(document, map);
+    assertEquals(map.hashCode(), document.hashCode());
+    assertFalse(document.equals(BsonDocuments.of(STRING_KEY, STRING_VALUE, MISSING_KEY, null)));
+  }
+
+  @Test
+  public void getInt_withBoxedValue() {
+    BsonDocument document = BsonDocuments.of(STRING_KEY, Integer.valueOf(42));
+    assertEquals(42, document.getInt(STRING_KEY));
+    assertEquals(7, document.getInt(MISSING_KEY, 7));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getInt_withWrongType() {
+    BsonDocuments.of(STRING_KEY, Long.valueOf(42)).getInt(STRING_KEY);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getBoolean_withNullValue() {
+    document1.getBoolean(NULL_KEY, true);
+  }
 }
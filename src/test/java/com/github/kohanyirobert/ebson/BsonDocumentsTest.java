@@ -1,14 +1,25 @@
 package com.github.kohanyirobert.ebson;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Pipe;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 @SuppressWarnings("static-method")
@@ -113,4 +124,120 @@ public final class BsonDocumentsTest extends AbstractBsonTest {
     assertEquals(BsonDocuments.readFrom(buffer), document3);
     assertEquals(BsonDocuments.readFrom(buffer), document2);
   }
+
+  @Test
+  public void stream_multipleDocuments() {
+    List<BsonDocument> documents = ImmutableList.of(
+        BsonDocuments.of(KEY1, null),
+        BsonDocuments.of(KEY2, new String(new char[200 * 1024])),
+        BsonDocuments.of(KEY3, Integer.valueOf(42)));
+    byte[] bytes = write(documents);
+    assertEquals(documents, Lists.newArrayList(
+        BsonDocuments.stream(new ByteArrayInputStream(bytes))));
+  }
+
+  @Test
+  public void stream_noDocuments() {
+    assertTrue(!BsonDocuments.stream(new ByteArrayInputStream(new byte[0])).hasNext());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void stream_nonBlockingChannel() throws IOException {
+    Pipe pipe = Pipe.open();
+    try {
+      pipe.source().configureBlocking(false);
+      BsonDocuments.stream(pipe.source());
+    } finally {
+      pipe.source().close();
+      pipe.sink().close();
+    }
+  }
+
+  @Test(expected = BufferUnderflowException.class)
+  public void stream_truncatedDocument() {
+    byte[] bytes = write(ImmutableList.of(BsonDocuments.of(KEY1, null), BsonDocuments.of(KEY2, null)));
+    Lists.newArrayList(BsonDocuments.stream(
+        new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1))));
+  }
+
+  @Test
+  public void toByteArray_growsBuffer() {
+    BsonDocument document = BsonDocuments.of(
+        KEY1, new String(new char[100 * 1024]),
+        KEY2, BsonDocuments.of(KEY3, new byte[100 * 1024]));
+    assertArrayEquals(write(ImmutableList.of(document)), BsonDocuments.toByteArray(document));
+    assertArrayEquals(write(ImmutableList.of(BsonDocuments.of())), BsonDocuments.toByteArray(BsonDocuments.of()));
+  }
+
+  @Test
+  public void writeTo_stream() throws IOException {
+    BsonDocument document = BsonDocuments.of(KEY1, Integer.valueOf(42));
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    BsonDocuments.writeTo(stream, document);
+    BsonDocuments.writeTo(stream, document);
+    assertEquals(ImmutableList.of(document, document), Lists.newArrayList(
+        BsonDocuments.stream(new ByteArrayInputStream(stream.toByteArray()))));
+  }
+
+  @Test
+  public void contentHash_andRawEquals() {
+    BsonDocument embedded = BsonDocuments.of(KEY1, "a", KEY2, Long.valueOf(1));
+    ByteBuffer document = wrap(BsonDocuments.of(KEY1, embedded, KEY2, new Object[] {embedded, null}));
+    ByteBuffer same = wrap(BsonDocuments.of(KEY1, embedded, KEY2, new Object[] {embedded, null}));
+    assertTrue(BsonDocuments.rawEquals(document, same));
+    assertEquals(BsonDocuments.contentHash(document), BsonDocuments.contentHash(same));
+
+    BsonDocument reordered = BsonDocuments.of(KEY2, Long.valueOf(1), KEY1, "a");
+    ByteBuffer other = wrap(BsonDocuments.of(KEY2, new Object[] {reordered, null}, KEY1, reordered));
+    assertFalse(BsonDocuments.rawEquals(document, other));
+    assertTrue(BsonDocuments.contentHash(document) != BsonDocuments.contentHash(other));
+    assertTrue(BsonDocuments.rawEquals(document, other, true));
+    assertEquals(BsonDocuments.contentHash(document, true), BsonDocuments.contentHash(other, true));
+    assertEquals(0, document.position());
+  }
+
+  @Test
+  public void rawEquals_ignoreFieldOrder_differentValues() {
+    ByteBuffer document = wrap(BsonDocuments.of(KEY1, new int[] {1, 2}, KEY2, "a"));
+    assertFalse(BsonDocuments.rawEquals(document, wrap(BsonDocuments.of(KEY2, "a", KEY1, new int[] {2, 1})), true));
+    assertFalse(BsonDocuments.rawEquals(document, wrap(BsonDocuments.of(KEY2, "b", KEY1, new int[] {1, 2})), true));
+    assertFalse(BsonDocuments.rawEquals(document, wrap(BsonDocuments.of(KEY3, "a", KEY1, new int[] {1, 2})), true));
+    assertTrue(BsonDocuments.contentHash(document, true)
+        != BsonDocuments.contentHash(wrap(BsonDocuments.of(KEY2, "a", KEY1, new int[] {2, 1})), true));
+  }
+
+  @Test
+  public void readFrom_primitives() {
+    BsonDocument document = BsonDocuments.of(
+        KEY1, Integer.valueOf(42),
+        KEY2, Long.valueOf(-1),
+        KEY3, BsonDocuments.of(KEY1, Boolean.TRUE, KEY2, Double.valueOf(0.5)));
+    BsonDocument read = BsonDocuments.readFrom(wrap(document));
+    assertEquals(document, read);
+    assertEquals(read, document);
+    assertEquals(document.hashCode(), read.hashCode());
+    assertEquals(document.toString(), read.toString());
+    assertEquals(42, read.getInt(KEY1));
+    assertEquals(Integer.valueOf(42), read.get(KEY1, Integer.class));
+    BsonDocument embedded = read.get(KEY3, BsonDocument.class);
+    assertTrue(embedded.getBoolean(KEY1));
+    assertEquals(0.5, embedded.getDouble(KEY2), 0);
+    assertEquals(-1, read.getLong(KEY2));
+  }
+
+  private static ByteBuffer wrap(BsonDocument document) {
+    return ByteBuffer.wrap(BsonDocuments.toByteArray(document)).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static byte[] write(List<BsonDocument> documents) {
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    for (BsonDocument document : documents) {
+      BsonDocuments.writeTo(buffer, document);
+    }
+    buffer.flip();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
 }
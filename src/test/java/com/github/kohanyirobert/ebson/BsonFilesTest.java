@@ -0,0 +1,189 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public final class BsonFilesTest extends AbstractBsonTest {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final List<BsonDocument> documents = Lists.newArrayList();
+
+  public BsonFilesTest() {
+    for (int i = 0; i < 1000; i++) {
+      documents.add(BsonDocuments.of(
+          "i", Integer.valueOf(i),
+          "s", new String(new char[BsonRandom.nextInt(100)])));
+    }
+  }
+
+  @Test
+  public void split_atDocumentBoundaries() throws IOException {
+    File file = write(documents);
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+      List<Iterable<BsonDocument>> parts = BsonFiles.split(channel, 4);
+      assertEquals(4, parts.size());
+      for (Iterable<BsonDocument> part : parts) {
+        assertTrue(!Iterables.isEmpty(part));
+      }
+      assertEquals(documents, Lists.newArrayList(Iterables.concat(parts)));
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  @Test
+  public void split_morePartsThanDocuments() throws IOException {
+    File file = write(documents.subList(0, 2));
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      List<Iterable<BsonDocument>> parts = BsonFiles.split(randomAccessFile.getChannel(), 8);
+      assertEquals(2, parts.size());
+      assertEquals(documents.subList(0, 2), Lists.newArrayList(Iterables.concat(parts)));
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  @Test
+  public void sort_inMemory() throws IOException {
+    assertSorted(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void sort_spillingRuns() throws IOException {
+    assertSorted(4 * 1024);
+  }
+
+  @Test
+  public void sort_mergingInPasses() throws IOException {
+    // a run per document, merged two at a time
+    assertSorted(1);
+  }
+
+  @Test
+  public void index_lookup() throws IOException {
+    File data = write(documents);
+    File index = folder.newFile();
+    RandomAccessFile dataFile = new RandomAccessFile(data, "r");
+    RandomAccessFile indexFile = new RandomAccessFile(index, "rw");
+    try {
+      BsonFiles.index(dataFile.getChannel(), indexFile.getChannel(), "i");
+      BsonIndex bsonIndex = BsonFiles.openIndex(dataFile.getChannel(), indexFile.getChannel());
+      assertEquals(documents.size(), bsonIndex.size());
+      for (int i = 0; i < documents.size(); i += 37) {
+        assertEquals(documents.get(i), bsonIndex.get(Integer.valueOf(i)));
+      }
+      assertEquals(documents.get(42), bsonIndex.get(Long.valueOf(42)));
+      assertEquals(0, bsonIndex.offset(Double.valueOf(0)));
+      assertNull(bsonIndex.get(Integer.valueOf(-1)));
+      assertNull(bsonIndex.get("42"));
+      assertEquals(-1, bsonIndex.offset(null));
+    } finally {
+      dataFile.close();
+      indexFile.close();
+    }
+  }
+
+  @Test
+  public void index_variableLengthKeys() throws IOException {
+    List<BsonDocument> list = Lists.newArrayList();
+    for (int i = 0; i < 100; i++) {
+      list.add(BsonDocuments.of("s", new String(new char[i]).replace('\0', 'a')));
+    }
+    File data = write(list);
+    File index = folder.newFile();
+    RandomAccessFile dataFile = new RandomAccessFile(data, "r");
+    RandomAccessFile indexFile = new RandomAccessFile(index, "rw");
+    try {
+      BsonFiles.index(dataFile.getChannel(), indexFile.getChannel(), "s");
+      BsonIndex bsonIndex = BsonFiles.openIndex(dataFile.getChannel(), indexFile.getChannel());
+      for (BsonDocument document : list) {
+        assertEquals(document, bsonIndex.get(document.get("s")));
+      }
+      assertNull(bsonIndex.get("b"));
+      assertNull(bsonIndex.get(new String(new char[100]).replace('\0', 'a')));
+      // keys are not padded to the longest one
+      assertTrue(indexFile.length() < list.size() * 100);
+    } finally {
+      dataFile.close();
+      indexFile.close();
+    }
+  }
+
+  private void assertSorted(long memoryBudget) throws IOException {
+    List<BsonDocument> unsorted = Lists.newArrayList();
+    for (int i = 0; i < 1000; i++) {
+      unsorted.add(BsonDocuments.of(
+          "k", BsonRandom.nextInt(2) == 0
+              ? Integer.valueOf(BsonRandom.nextInt(50))
+              : Double.valueOf(BsonRandom.nextInt(50) + 0.5),
+          "i", Integer.valueOf(i)));
+    }
+    File output = folder.newFile("sorted.bson");
+    FileInputStream inputStream = new FileInputStream(write(unsorted));
+    FileOutputStream outputStream = new FileOutputStream(output);
+    try {
+      BsonFiles.sort(inputStream.getChannel(), outputStream.getChannel(), "k", memoryBudget);
+    } finally {
+      inputStream.close();
+      outputStream.close();
+    }
+
+    List<BsonDocument> expected = Lists.newArrayList(unsorted);
+    Collections.sort(expected, new Comparator<BsonDocument>() {
+
+      @Override
+      public int compare(BsonDocument left, BsonDocument right) {
+        return Double.compare(
+            ((Number) left.get("k")).doubleValue(),
+            ((Number) right.get("k")).doubleValue());
+      }
+    });
+    inputStream = new FileInputStream(output);
+    try {
+      assertEquals(expected, Lists.newArrayList(BsonDocuments.stream(inputStream)));
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  private File write(List<BsonDocument> list) throws IOException {
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    for (BsonDocument document : list) {
+      BsonDocuments.writeTo(buffer, document);
+    }
+    buffer.flip();
+    File file = folder.newFile();
+    FileOutputStream stream = new FileOutputStream(file);
+    try {
+      stream.getChannel().write(buffer);
+    } finally {
+      stream.close();
+    }
+    return file;
+  }
+}
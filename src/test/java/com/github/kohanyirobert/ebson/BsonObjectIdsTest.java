@@ -0,0 +1,148 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.collect.Sets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public final class BsonObjectIdsTest extends AbstractBsonTest {
+
+  @Test
+  public void next_sharesMachineAndProcessIdentifiers() {
+    BsonObjectId first = BsonObjectIds.next();
+    BsonObjectId second = BsonObjectIds.next();
+    assertEquals(BsonObjectIds.machineIdentifier(first), BsonObjectIds.machineIdentifier(second));
+    assertEquals(BsonObjectIds.processIdentifier(first), BsonObjectIds.processIdentifier(second));
+    assertEquals(BsonObjectIds.processIdentifier(first), second.processId().getShort());
+    assertTrue(BsonObjectIds.counter(first) != BsonObjectIds.counter(second));
+    long seconds = System.currentTimeMillis() / 1000;
+    assertTrue(Math.abs(seconds - (BsonObjectIds.timestampSeconds(second) & 0xffffffffL)) <= 1);
+  }
+
+  @Test
+  public void next_array() {
+    BsonObjectId[] objectIds = new BsonObjectId[1000];
+    BsonObjectIds.next(objectIds);
+    Set<BsonObjectId> unique = Sets.newHashSet(objectIds);
+    assertEquals(objectIds.length, unique.size());
+    for (int i = 1; i < objectIds.length; i++) {
+      assertEquals((BsonObjectIds.counter(objectIds[i - 1]) + 1) & 0xffffff, BsonObjectIds.counter(objectIds[i]));
+      assertTrue(BsonObjectIds.COMPARATOR.compare(objectIds[i - 1], objectIds[i]) != 0);
+    }
+  }
+
+  @Test
+  public void next_buffer() {
+    ByteBuffer buffer = ByteBuffer.allocate(10 * 12).order(ByteOrder.LITTLE_ENDIAN);
+    BsonObjectIds.next(buffer, 10);
+    assertEquals(buffer.capacity(), buffer.position());
+    buffer.flip();
+    BsonObjectId previous = new BasicObjectId(buffer);
+    for (int i = 1; i < 10; i++) {
+      BsonObjectId objectId = new BasicObjectId(buffer);
+      assertEquals((BsonObjectIds.counter(previous) + 1) & 0xffffff, BsonObjectIds.counter(objectId));
+      previous = objectId;
+    }
+  }
+
+  @Test
+  public void accessors_otherImplementation() {
+    BsonObjectId basic = BsonObjectIds.next();
+    BsonObjectId other = new OtherObjectId(basic.objectId());
+    assertEquals(BsonObjectIds.timestampSeconds(basic), BsonObjectIds.timestampSeconds(other));
+    assertEquals(BsonObjectIds.machineIdentifier(basic), BsonObjectIds.machineIdentifier(other));
+    assertEquals(BsonObjectIds.processIdentifier(basic), BsonObjectIds.processIdentifier(other));
+    assertEquals(BsonObjectIds.counter(basic), BsonObjectIds.counter(other));
+    assertEquals(0, BsonObjectIds.COMPARATOR.compare(other, basic));
+    assertEquals(0, BsonObjectIds.COMPARATOR.compare(basic, other));
+    assertEquals(basic, other);
+  }
+
+  @Test(expected = BufferOverflowException.class)
+  public void next_bufferTooSmall() {
+    BsonObjectIds.next(ByteBuffer.allocate(12), 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void next_bufferBatchTooLarge() {
+    BsonObjectIds.next(ByteBuffer.allocate(0), (1 << 24) + 1);
+  }
+
+  @Test
+  public void next_concurrentlyUnique() throws Exception {
+    int threads = 8;
+    final int count = 10000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      Set<Future<BsonObjectId[]>> futures = Sets.newHashSet();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(new Callable<BsonObjectId[]>() {
+
+          @Override
+          public BsonObjectId[] call() {
+            BsonObjectId[] objectIds = new BsonObjectId[count];
+            for (int j = 0; j < count; j++) {
+              objectIds[j] = BsonObjectIds.next();
+            }
+            return objectIds;
+          }
+        }));
+      }
+      Set<BsonObjectId> unique = Sets.newHashSet();
+      for (Future<BsonObjectId[]> future : futures) {
+        unique.addAll(Arrays.asList(future.get()));
+      }
+      assertEquals(threads * count, unique.size());
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+
+  private static final class OtherObjectId implements BsonObjectId {
+
+    private final ByteBuffer objectId;
+
+    OtherObjectId(ByteBuffer objectId) {
+      this.objectId = objectId;
+    }
+
+    @Override
+    public ByteBuffer objectId() {
+      return objectId.asReadOnlyBuffer();
+    }
+
+    @Override
+    public ByteBuffer time() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ByteBuffer machineId() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ByteBuffer processId() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ByteBuffer increment() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+@SuppressWarnings("static-method")
+public final class BsonObjectTest {
+
+  public BsonObjectTest() {}
+
+  @Test
+  public void find_terminal() {
+    for (BsonObject object : BsonObject.values()) {
+      assertEquals(object, BsonObject.find(object.terminal()));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void find_unknownTerminal() {
+    BsonObject.find((byte) 42);
+  }
+
+  @Test
+  public void find_class() {
+    assertEquals(BsonObject.NULL, BsonObject.find((Class<?>) null));
+    assertEquals(BsonObject.STRING, BsonObject.find(String.class));
+    assertEquals(BsonObject.BINARY, BsonObject.find(byte[].class));
+    assertEquals(BsonObject.ARRAY, BsonObject.find(int[].class));
+    assertEquals(BsonObject.UTC_DATE_TIME, BsonObject.find(java.sql.Date.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void find_unknownClass() {
+    BsonObject.find(Object.class);
+  }
+
+  @Test
+  public void find_class_afterPredicateChanged() {
+    Predicate<Class<?>> predicate = BsonObject.UTC_DATE_TIME.predicate();
+    assertEquals(BsonObject.UTC_DATE_TIME, BsonObject.find(Date.class));
+    try {
+      BsonObject.UTC_DATE_TIME.predicate(Predicates.<Class<?>>alwaysFalse());
+      BsonObject.INT64.predicate(Predicates.<Class<?>>equalTo(Date.class));
+      assertEquals(BsonObject.INT64, BsonObject.find(Date.class));
+    } finally {
+      BsonObject.UTC_DATE_TIME.predicate(predicate);
+      BsonObject.INT64.predicate(DefaultPredicate.INT64);
+    }
+    assertEquals(BsonObject.UTC_DATE_TIME, BsonObject.find(Date.class));
+  }
+
+  @Test
+  public void find_class_afterBinaryPredicateChanged() {
+    try {
+      BsonBinary.USER.predicate(Predicates.<Class<?>>equalTo(StringBuilder.class));
+      assertEquals(BsonObject.BINARY, BsonObject.find(StringBuilder.class));
+    } finally {
+      BsonBinary.USER.predicate(Predicates.<Class<?>>alwaysFalse());
+    }
+  }
+}
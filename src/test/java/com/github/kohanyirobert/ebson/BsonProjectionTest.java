@@ -0,0 +1,73 @@
+package com.github.kohanyirobert.ebson;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public final class BsonProjectionTest extends AbstractBsonTest {
+
+  private final BsonDocument document;
+
+  public BsonProjectionTest() {
+    document = BsonDocuments.of(
+        "_id", Integer.valueOf(42),
+        "meta", BsonDocuments.of("tenant", "acme", "region", "eu"),
+        "items", Arrays.asList(
+            BsonDocuments.of("sku", "a", "count", Integer.valueOf(1)),
+            BsonDocuments.of("sku", "b", "count", Integer.valueOf(2))),
+        "payload", new byte[1024],
+        "last", "value");
+  }
+
+  @Test
+  public void readFrom_topLevelPaths() {
+    ByteBuffer buffer = write(document);
+    assertEquals(BsonDocuments.of("_id", Integer.valueOf(42), "last", "value"),
+        BsonDocuments.readFrom(buffer, BsonDocuments.projection("_id", "last")));
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test
+  public void readFrom_nestedPaths() {
+    ByteBuffer buffer = write(document);
+    BsonDocument expected = BsonDocuments.of(
+        "meta", BsonDocuments.of("tenant", "acme"),
+        "items", BsonDocuments.of("0", BsonDocuments.of("sku", "a")));
+    assertEquals(expected, BsonDocuments.readFrom(buffer,
+        BsonDocuments.projection("meta.tenant", "items.0.sku")));
+  }
+
+  @Test
+  public void readFrom_wholeSubtree() {
+    ByteBuffer buffer = write(document);
+    assertEquals(BsonDocuments.of("meta", document.get("meta")),
+        BsonDocuments.readFrom(buffer, BsonDocuments.projection("meta", "meta.tenant")));
+  }
+
+  @Test
+  public void readFrom_missingPaths() {
+    ByteBuffer buffer = write(document, document);
+    assertEquals(BsonDocuments.of(),
+        BsonDocuments.readFrom(buffer, BsonDocuments.projection("missing", "_id.nested")));
+    assertEquals(BsonDocuments.of("last", "value"),
+        BsonDocuments.readFrom(buffer, BsonDocuments.projection("last")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void projection_withEmptyKey() {
+    BsonDocuments.projection("meta..tenant");
+  }
+
+  private static ByteBuffer write(BsonDocument... documents) {
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    for (BsonDocument each : documents) {
+      BsonDocuments.writeTo(buffer, each);
+    }
+    buffer.flip();
+    return buffer;
+  }
+}
@@ -0,0 +1,113 @@
+package com.github.kohanyirobert.ebson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+
+public final class BsonStreamReaderTest extends AbstractBsonTest {
+
+  private final BsonDocument document;
+
+  public BsonStreamReaderTest() {
+    document = BsonDocuments.of(
+        "int32", Integer.valueOf(42),
+        "int64", Long.valueOf(-42),
+        "double", Double.valueOf(4.2),
+        "boolean", Boolean.TRUE,
+        "string", "árvíztűrő",
+        "embedded", BsonDocuments.of("date", new Date(42), "skipped", "value"),
+        "array", Arrays.asList("one", "two"),
+        "null", null);
+  }
+
+  @Test
+  public void next_readsEveryElement() {
+    ByteBuffer buffer = write(document);
+    BsonStreamReader reader = BsonDocuments.streamReader(buffer);
+    assertEquals(BsonObject.INT32, reader.next());
+    assertEquals("int32", reader.key());
+    assertEquals(42, reader.intValue());
+    assertEquals(BsonObject.INT64, reader.next());
+    assertEquals(-42L, reader.longValue());
+    assertEquals(BsonObject.DOUBLE, reader.next());
+    assertEquals(4.2, reader.doubleValue(), 0);
+    assertEquals(BsonObject.BOOLEAN, reader.next());
+    assertTrue(reader.booleanValue());
+    assertEquals(BsonObject.STRING, reader.next());
+    assertEquals("árvíztűrő", reader.stringValue());
+    assertEquals(BsonObject.EMBEDDED, reader.next());
+    reader.enterDocument();
+    assertEquals(2, reader.depth());
+    assertEquals(BsonObject.UTC_DATE_TIME, reader.next());
+    assertEquals(42L, reader.longValue());
+    reader.exitDocument();
+    assertEquals(BsonObject.ARRAY, reader.next());
+    reader.enterDocument();
+    assertEquals(BsonObject.STRING, reader.next());
+    assertEquals("0", reader.key());
+    assertEquals(BsonObject.STRING, reader.next());
+    assertEquals("two", reader.value());
+    assertNull(reader.next());
+    reader.exitDocument();
+    assertEquals(BsonObject.NULL, reader.next());
+    assertNull(reader.value());
+    assertNull(reader.next());
+    reader.exitDocument();
+    assertEquals(0, reader.depth());
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void next_skipsUnreadValues() {
+    ByteBuffer buffer = write(document, BsonDocuments.of("second", "document"));
+    BsonStreamReader reader = BsonDocuments.streamReader(buffer);
+    int count = 0;
+    while (reader.next() != null) {
+      count++;
+    }
+    assertEquals(document.size(), count);
+    reader.exitDocument();
+    assertEquals(BsonDocuments.of("second", "document"), BsonDocuments.readFrom(buffer));
+  }
+
+  @Test
+  public void exitDocument_skipsRemainingElements() {
+    ByteBuffer buffer = write(document, BsonDocuments.of("second", "document"));
+    BsonStreamReader reader = BsonDocuments.streamReader(buffer);
+    reader.next();
+    reader.exitDocument();
+    assertEquals(BsonDocuments.of("second", "document"), BsonDocuments.readFrom(buffer));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void intValue_withOtherType() {
+    BsonStreamReader reader = BsonDocuments.streamReader(write(document));
+    reader.next();
+    reader.next();
+    reader.intValue();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void next_afterOutermostDocumentExited() {
+    BsonStreamReader reader = BsonDocuments.streamReader(write(document));
+    reader.exitDocument();
+    reader.next();
+  }
+
+  private static ByteBuffer write(BsonDocument... documents) {
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    for (BsonDocument each : documents) {
+      BsonDocuments.writeTo(buffer, each);
+    }
+    buffer.flip();
+    return buffer;
+  }
+}
@@ -0,0 +1,55 @@
+package com.github.kohanyirobert.ebson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public final class BsonTimestampsTest extends AbstractBsonTest {
+
+  @Test
+  public void accessors_otherImplementation() {
+    BsonTimestamp basic = new BasicTimestamp(0x507f1f7700000002L);
+    BsonTimestamp other = new OtherTimestamp(basic.timestamp());
+    assertEquals(0x507f1f7700000002L, BsonTimestamps.value(other));
+    assertEquals(0x507f1f77, BsonTimestamps.timestampSeconds(other));
+    assertEquals(2, BsonTimestamps.counter(other));
+    assertEquals(0, BsonTimestamps.COMPARATOR.compare(basic, other));
+    assertEquals(basic, other);
+  }
+
+  @Test
+  public void comparator_unsigned() {
+    BsonTimestamp early = new BasicTimestamp(0x507f1f7700000002L);
+    BsonTimestamp late = new BasicTimestamp(0xf07f1f7700000001L);
+    assertTrue(BsonTimestamps.COMPARATOR.compare(early, late) < 0);
+    assertTrue(BsonTimestamps.COMPARATOR.compare(late, early) > 0);
+  }
+
+  private static final class OtherTimestamp implements BsonTimestamp {
+
+    private final ByteBuffer timestamp;
+
+    OtherTimestamp(ByteBuffer timestamp) {
+      this.timestamp = timestamp;
+    }
+
+    @Override
+    public ByteBuffer timestamp() {
+      return timestamp.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public ByteBuffer time() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ByteBuffer increment() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.github.kohanyirobert.ebson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Date;
+import java.util.regex.Pattern;
+
+public final class BsonValidationTest extends AbstractBsonTest {
+
+  private final BsonDocument document;
+
+  public BsonValidationTest() {
+    document = BsonDocuments.of(
+        "string", "árvíztűrő 😀",
+        "int32", Integer.valueOf(42),
+        "embedded", BsonDocuments.of("int64", Long.valueOf(42), "date", new Date(0)),
+        "array", new Object[] {Boolean.TRUE, null, Double.valueOf(1)},
+        "binary", new byte[] {42},
+        "regex", Pattern.compile("a*", Pattern.CASE_INSENSITIVE));
+  }
+
+  @Test
+  public void validate_validDocument() {
+    ByteBuffer buffer = wrap(BsonDocuments.toByteArray(document));
+    buffer.position(0);
+    BsonValidation validation = BsonDocuments.validate(buffer);
+    assertTrue(validation.isValid());
+    assertEquals(-1, validation.offset());
+    assertEquals(0, buffer.position());
+    assertSame(validation, BsonDocuments.validate(buffer));
+  }
+
+  @Test
+  public void validate_truncatedDocument() {
+    byte[] bytes = BsonDocuments.toByteArray(document);
+    ByteBuffer buffer = wrap(bytes);
+    buffer.limit(bytes.length - 1);
+    assertInvalid(0, buffer);
+  }
+
+  @Test
+  public void validate_unknownTerminal() {
+    byte[] bytes = BsonDocuments.toByteArray(BsonDocuments.of("a", null));
+    bytes[4] = 42;
+    assertInvalid(4, wrap(bytes));
+  }
+
+  @Test
+  public void validate_invalidBoolean() {
+    byte[] bytes = BsonDocuments.toByteArray(BsonDocuments.of("a", Boolean.TRUE));
+    bytes[7] = 2;
+    assertInvalid(7, wrap(bytes));
+  }
+
+  @Test
+  public void validate_malformedUtf8() {
+    byte[] bytes = BsonDocuments.toByteArray(BsonDocuments.of("a", "xyz"));
+    bytes[12] = (byte) 0xc0;
+    assertInvalid(12, wrap(bytes));
+  }
+
+  @Test
+  public void validate_wrongStringLength() {
+    byte[] bytes = BsonDocuments.toByteArray(BsonDocuments.of("a", "xyz"));
+    bytes[7] = 3;
+    assertInvalid(13, wrap(bytes));
+  }
+
+  @Test
+  public void validate_missingTerminator() {
+    byte[] bytes = BsonDocuments.toByteArray(BsonDocuments.of("a", null));
+    bytes[bytes.length - 1] = 1;
+    assertInvalid(bytes.length - 1, wrap(bytes));
+  }
+
+  @Test
+  public void validate_tooDeep() {
+    BsonDocument nested = BsonDocuments.of();
+    for (int i = 0; i < 100; i++) {
+      nested = BsonDocuments.of("a", nested);
+    }
+    assertTrue(BsonDocuments.validate(wrap(BsonDocuments.toByteArray(nested))).isValid());
+    nested = BsonDocuments.of("a", nested);
+    assertFalse(BsonDocuments.validate(wrap(BsonDocuments.toByteArray(nested))).isValid());
+  }
+
+  private static void assertInvalid(int offset, ByteBuffer buffer) {
+    BsonValidation validation = BsonDocuments.validate(buffer);
+    assertFalse(validation.isValid());
+    assertEquals(offset, validation.offset());
+    assertTrue(validation.message() != null);
+  }
+
+  private static ByteBuffer wrap(byte[] bytes) {
+    return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
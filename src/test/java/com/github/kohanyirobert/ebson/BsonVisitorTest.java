@@ -0,0 +1,144 @@
+package com.github.kohanyirobert.ebson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.regex.Pattern;
+
+public final class BsonVisitorTest extends AbstractBsonTest {
+
+  @Test
+  public void visit_everyMappedType() {
+    BsonDocument document = BsonDocuments.builder()
+        .put("double", Double.valueOf(4.2))
+        .put("string", "árvíztűrő")
+        .put("embedded", BsonDocuments.of("int32", Integer.valueOf(42)))
+        .put("array", Arrays.asList(Long.valueOf(1), Boolean.FALSE))
+        .put("binary", new byte[] {1, 2, 3})
+        .put("date", new Date(42))
+        .put("null", null)
+        .put("regex", Pattern.compile("^42$", Pattern.CASE_INSENSITIVE))
+        .build();
+    ByteBuffer buffer = write(document);
+    RecordingVisitor visitor = new RecordingVisitor();
+    BsonDocuments.visit(buffer, visitor);
+    assertEquals("{null double=4.2 string=árvíztűrő {embedded int32=42 } "
+        + "[array 0=1 1=false ] binary=3/LITTLE_ENDIAN date=42 null=null regex=^42$/i } ",
+        visitor.events.toString());
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void visit_objectIdAndTimestamp() {
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    buffer.putInt(0)
+        .put(BsonBytes.OBJECT_ID).put((byte) 'o').put(BsonBytes.EOO).put(new byte[12])
+        .put(BsonBytes.TIMESTAMP).put((byte) 't').put(BsonBytes.EOO).putLong(42)
+        .put(BsonBytes.EOO);
+    buffer.putInt(0, buffer.position());
+    buffer.flip();
+    RecordingVisitor visitor = new RecordingVisitor();
+    BsonDocuments.visit(buffer, visitor);
+    assertEquals("{null o=000000000000000000000000 t=42 } ", visitor.events.toString());
+  }
+
+  private static ByteBuffer write(BsonDocument document) {
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    BsonDocuments.writeTo(buffer, document);
+    buffer.flip();
+    return buffer;
+  }
+
+  private static final class RecordingVisitor extends BsonVisitor.Adapter {
+
+    private final StringBuilder events = new StringBuilder();
+
+    RecordingVisitor() {}
+
+    @Override
+    public void visitStartDocument(String key) {
+      events.append('{').append(key).append(' ');
+    }
+
+    @Override
+    public void visitEndDocument() {
+      events.append("} ");
+    }
+
+    @Override
+    public void visitStartArray(String key) {
+      events.append('[').append(key).append(' ');
+    }
+
+    @Override
+    public void visitEndArray() {
+      events.append("] ");
+    }
+
+    @Override
+    public void visitDouble(String key, double value) {
+      append(key, Double.valueOf(value));
+    }
+
+    @Override
+    public void visitString(String key, CharSequence value) {
+      append(key, value);
+    }
+
+    @Override
+    public void visitBinary(String key, BsonBinary binary, ByteBuffer value) {
+      append(key, value.remaining() + "/" + value.order());
+    }
+
+    @Override
+    public void visitObjectId(String key, BsonObjectId value) {
+      append(key, value);
+    }
+
+    @Override
+    public void visitBoolean(String key, boolean value) {
+      append(key, Boolean.valueOf(value));
+    }
+
+    @Override
+    public void visitUtcDateTime(String key, long value) {
+      append(key, Long.valueOf(value));
+    }
+
+    @Override
+    public void visitNull(String key) {
+      append(key, null);
+    }
+
+    @Override
+    public void visitRegularExpression(String key, String pattern, String options) {
+      append(key, pattern + "/" + options);
+    }
+
+    @Override
+    public void visitInt32(String key, int value) {
+      append(key, Integer.valueOf(value));
+    }
+
+    @Override
+    public void visitTimestamp(String key, long value) {
+      append(key, Long.valueOf(value));
+    }
+
+    @Override
+    public void visitInt64(String key, long value) {
+      append(key, Long.valueOf(value));
+    }
+
+    private void append(String key, Object value) {
+      events.append(key).append('=').append(value).append(' ');
+    }
+  }
+}
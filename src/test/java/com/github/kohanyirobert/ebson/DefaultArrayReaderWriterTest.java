@@ -1,12 +1,16 @@
 package com.github.kohanyirobert.ebson;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import org.junit.Test;
 
 import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Map;
 
 public final class DefaultArrayReaderWriterTest extends AbstractReaderWriterTest {
@@ -35,6 +39,92 @@ public final class DefaultArrayReaderWriterTest extends AbstractReaderWriterTest
     assertArray(writeTo(Collections.emptyList()), readFrom());
   }
 
+  @Test
+  public void doubleArray_isBackedByPrimitives() {
+    double[] expected = new double[] {1, 2, 3};
+    writeTo(expected);
+    BsonArray array = (BsonArray) readFrom();
+    assertEquals(BsonObject.DOUBLE, array.elementType());
+    assertArrayEquals(expected, array.doubleArray(), 0);
+  }
+
+  @Test
+  public void longCollection_isBackedByPrimitives() {
+    writeTo(Arrays.asList(Long.valueOf(1), Long.valueOf(2)));
+    assertArrayEquals(new long[] {1, 2}, ((BsonArray) readFrom()).longArray());
+  }
+
+  @Test
+  public void intArray_isBackedByPrimitives() {
+    int[] expected = new int[1000];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = BsonRandom.nextInt();
+    }
+    writeTo(expected);
+    assertArrayEquals(expected, ((BsonArray) readFrom()).intArray());
+  }
+
+  @Test
+  public void mixedArray_isBackedByObjects() {
+    Object[] expected = new Object[] {Integer.valueOf(1), Integer.valueOf(2), "three", null};
+    writeTo(expected);
+    BsonArray array = (BsonArray) readFrom();
+    assertNull(array.elementType());
+    assertEquals(Arrays.asList(expected), array);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void doubleArray_ofLongArray() {
+    writeTo(new long[] {1});
+    ((BsonArray) readFrom()).doubleArray();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void add_notSupported() {
+    writeTo(new long[] {1});
+    ((BsonArray) readFrom()).add(Long.valueOf(2));
+  }
+
+  @Test
+  public void booleanArray() {
+    assertArray(writeTo(new boolean[] {true, false, true}), readFrom());
+  }
+
+  @Test
+  public void largeLongArray_indexKeysBeyondTable() {
+    long[] expected = new long[12345];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = BsonRandom.nextLong();
+    }
+    writeTo(expected);
+    assertArrayEquals(expected, ((BsonArray) readFrom()).longArray());
+  }
+
+  @Test
+  public void primitiveBackedArray_rewritten() {
+    writeTo(new int[] {1, 2, 3});
+    Object array = readFrom();
+    writeTo(array);
+    assertArrayEquals(new int[] {1, 2, 3}, ((BsonArray) readFrom()).intArray());
+  }
+
+  @Test
+  public void getSize_matchesWrittenBytes() {
+    Object[] arrays = new Object[] {
+        new int[20000],
+        new long[] {1, 2},
+        new double[1001],
+        new boolean[11],
+        new String[][] {{"a"}, {}},
+        new Object[] {"a", null, Integer.valueOf(1)},
+        Arrays.asList(new Object[101]),
+        new LinkedHashSet<Object>(Arrays.asList("a", "b"))};
+    for (Object array : arrays) {
+      writeTo(array);
+      assertEquals(writer.getSize(array), BUFFER.get().remaining());
+    }
+  }
+
   private static void assertArray(Object expected, Object actual) {
     assertArrayEquals(toArray(expected), toArray(actual));
   }
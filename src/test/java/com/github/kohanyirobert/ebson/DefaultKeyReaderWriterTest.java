@@ -1,6 +1,9 @@
 package com.github.kohanyirobert.ebson;
 
+import com.google.common.base.Strings;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -22,4 +25,22 @@ public final class DefaultKeyReaderWriterTest extends AbstractReaderWriterTest {
   public void nonAsciiString() {
     assertEquals(writeTo(NON_ASCII), readFrom());
   }
+
+  @Test
+  public void emptyString() {
+    assertEquals(writeTo(""), readFrom());
+  }
+
+  @Test
+  public void longString() {
+    assertEquals(writeTo(Strings.repeat(NON_ASCII, 10)), readFrom());
+  }
+
+  @Test
+  public void repeatedString_isShared() {
+    writeTo(new String(ASCII));
+    Object first = readFrom();
+    writeTo(new String(ASCII));
+    assertSame(first, readFrom());
+  }
 }
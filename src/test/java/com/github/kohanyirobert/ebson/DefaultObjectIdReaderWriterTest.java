@@ -1,6 +1,7 @@
 package com.github.kohanyirobert.ebson;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
@@ -28,4 +29,30 @@ public final class DefaultObjectIdReaderWriterTest extends AbstractReaderWriterT
   public void randomObjectId() {
     assertEquals(writeTo(new BasicObjectId(RANDOM_OBJECT_ID.get())), readFrom());
   }
+
+  @Test
+  public void accessors() {
+    BsonObjectId objectId = new BasicObjectId(ByteBuffer.wrap(new byte[] {
+        0x50, 0x7f, 0x1f, 0x77, 1, 2, 3, 4, 5, 6, 7, 8}));
+    assertEquals(0x507f1f77, BsonObjectIds.timestampSeconds(objectId));
+    assertEquals(0x030201, BsonObjectIds.machineIdentifier(objectId));
+    assertEquals(0x0504, BsonObjectIds.processIdentifier(objectId));
+    assertEquals(0x060708, BsonObjectIds.counter(objectId));
+    assertEquals("507f1f770102030405060708", objectId.toString());
+    assertEquals(ByteBuffer.wrap(new byte[] {4, 5}), objectId.processId());
+    assertEquals(BsonObjectIds.processIdentifier(objectId), objectId.processId().getShort());
+    assertEquals(objectId.objectId().hashCode(), objectId.hashCode());
+    assertEquals(ByteBuffer.wrap(new byte[] {6, 7, 8}), objectId.increment());
+    assertEquals(0x507f1f77, objectId.time().getInt());
+  }
+
+  @Test
+  public void comparator_unsigned() {
+    BsonObjectId small = new BasicObjectId(ByteBuffer.wrap(new byte[] {1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}));
+    BsonObjectId large = new BasicObjectId(ByteBuffer.wrap(new byte[] {-1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}));
+    BsonObjectId largeLow = new BasicObjectId(ByteBuffer.wrap(new byte[] {-1, 0, 0, 0, 0, 0, 0, 0, -1, 0, 0, 0}));
+    assertTrue(BsonObjectIds.COMPARATOR.compare(small, large) < 0);
+    assertTrue(BsonObjectIds.COMPARATOR.compare(large, largeLow) < 0);
+    assertEquals(0, BsonObjectIds.COMPARATOR.compare(large, new BasicObjectId(large.objectId())));
+  }
 }
@@ -1,6 +1,7 @@
 package com.github.kohanyirobert.ebson;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -16,6 +17,7 @@ import static java.util.regex.Pattern.UNICODE_CHARACTER_CLASS;
 import static java.util.regex.Pattern.UNIX_LINES;
 import static java.util.regex.Pattern.compile;
 
+import java.nio.ByteBuffer;
 import java.util.regex.Pattern;
 
 public final class DefaultRegularExpressionReaderWriterTest extends AbstractReaderWriterTest {
@@ -89,6 +91,57 @@ public final class DefaultRegularExpressionReaderWriterTest extends AbstractRead
     assertPatternEquals(writeTo(compile("", MULTILINE | CASE_INSENSITIVE | COMMENTS)), readFrom());
   }
 
+  @Test
+  public void multipleFlags_optionsInAlphabeticalOrder() {
+    writeTo(compile("", MULTILINE | CASE_INSENSITIVE | COMMENTS | DOTALL));
+    ByteBuffer buffer = BUFFER.get();
+    assertEquals("", BsonToken.KEY.reader().readFrom(buffer));
+    assertEquals("imsx", BsonToken.KEY.reader().readFrom(buffer));
+  }
+
+  @Test
+  public void writeTo_replacedKeyWriter() {
+    BsonToken.KEY.writer(new BsonWriter() {
+
+      @Override
+      public void writeTo(ByteBuffer buffer, Object reference) {
+        DefaultWriter.KEY.writeTo(buffer, ((String) reference).toUpperCase());
+      }
+
+      @Override
+      public int getSize(Object reference) {
+        return DefaultWriter.KEY.getSize(((String) reference).toUpperCase());
+      }
+    });
+    try {
+      Pattern pattern = compile("a", CASE_INSENSITIVE);
+      assertEquals(4, DefaultWriter.REGULAR_EXPRESSION.getSize(pattern));
+      writeTo(pattern);
+      ByteBuffer buffer = BUFFER.get();
+      assertEquals("A", BsonToken.KEY.reader().readFrom(buffer));
+      assertEquals("I", BsonToken.KEY.reader().readFrom(buffer));
+    } finally {
+      BsonToken.KEY.writer(DefaultWriter.KEY);
+    }
+  }
+
+  @Test
+  public void readFrom_sharesCompiledPattern() {
+    writeTo(compile("^4[0-9]$", CASE_INSENSITIVE));
+    Object first = readFrom();
+    BUFFER.get().rewind();
+    assertSame(first, readFrom());
+  }
+
+  @Test
+  public void readFrom_repeatedOptions() {
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    buffer.put((byte) 0).put("ii".getBytes()).put((byte) 0);
+    buffer.flip();
+    assertEquals(CASE_INSENSITIVE, ((Pattern) readFrom()).flags());
+  }
+
   private static void assertPatternEquals(Object expected, Object actual) {
     Pattern expectedPattern = (Pattern) expected;
     Pattern actualPattern = (Pattern) actual;
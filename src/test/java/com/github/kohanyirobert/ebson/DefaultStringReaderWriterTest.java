@@ -0,0 +1,56 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.primitives.Ints;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public final class DefaultStringReaderWriterTest extends AbstractReaderWriterTest {
+
+  private static final String NON_ASCII = "árvíztűrőtükörfúrógép";
+  private static final String SUPPLEMENTARY = "😀 €";
+  private static final String UNPAIRED_SURROGATES = "a\ud83db\ude00";
+
+  public DefaultStringReaderWriterTest() {
+    super(DefaultReader.STRING, DefaultWriter.STRING);
+  }
+
+  @Test
+  public void nonAsciiString() {
+    assertEquals(writeTo(NON_ASCII), readFrom());
+  }
+
+  @Test
+  public void supplementaryString() {
+    assertEquals(writeTo(SUPPLEMENTARY), readFrom());
+  }
+
+  @Test
+  public void unpairedSurrogates_areReplaced() {
+    writeTo(UNPAIRED_SURROGATES);
+    assertEquals("a?b?", readFrom());
+  }
+
+  @Test
+  public void getSize_matchesJdkEncoding() {
+    for (String string : new String[] {"", NON_ASCII, SUPPLEMENTARY, UNPAIRED_SURROGATES}) {
+      int expected = Ints.BYTES + string.getBytes(Charsets.UTF_8).length + 1;
+      assertEquals(expected, writer.getSize(string));
+    }
+  }
+
+  @Test
+  public void directBuffer() {
+    String string = Strings.repeat(NON_ASCII + SUPPLEMENTARY, 8);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(writer.getSize(string)).order(ByteOrder.LITTLE_ENDIAN);
+    writer.writeTo(buffer, string);
+    buffer.flip();
+    assertEquals(string, reader.readFrom(buffer));
+  }
+}
@@ -1,6 +1,7 @@
 package com.github.kohanyirobert.ebson;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
@@ -28,4 +29,18 @@ public final class DefaultTimestampReaderWriterTest extends AbstractReaderWriter
   public void randomTimestamp() {
     assertEquals(writeTo(new BasicTimestamp(RANDOM_TIMESTAMP.get())), readFrom());
   }
+
+  @Test
+  public void accessors() {
+    BsonTimestamp timestamp = new BasicTimestamp(ByteBuffer.wrap(new byte[] {
+        1, 0, 0, 0, 0x77, 0x1f, 0x7f, 0x50}).order(ByteOrder.LITTLE_ENDIAN));
+    assertEquals(0x507f1f77, BsonTimestamps.timestampSeconds(timestamp));
+    assertEquals(1, BsonTimestamps.counter(timestamp));
+    assertEquals(0x507f1f7700000001L, BsonTimestamps.value(timestamp));
+    assertEquals(0x507f1f77, timestamp.time().getInt());
+    assertEquals(1, timestamp.increment().getInt());
+    assertEquals("01000000771f7f50", timestamp.toString());
+    assertEquals(timestamp.timestamp().hashCode(), timestamp.hashCode());
+    assertTrue(BsonTimestamps.COMPARATOR.compare(timestamp, new BasicTimestamp(-1L)) < 0);
+  }
 }
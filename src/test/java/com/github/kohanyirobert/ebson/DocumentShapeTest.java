@@ -0,0 +1,63 @@
+package com.github.kohanyirobert.ebson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public final class DocumentShapeTest {
+
+  @Test
+  public void of_sameKeys_shareShape() {
+    DocumentShape shape = DocumentShape.of(new String[] {"a", "b", "c"}, 3);
+    assertSame(shape, DocumentShape.of(new String[] {"a", "b", new String("c"), "unused"}, 3));
+    assertEquals(3, shape.keys().length);
+  }
+
+  @Test
+  public void of_differentOrder_differentShape() {
+    DocumentShape shape = DocumentShape.of(new String[] {"x", "y"}, 2);
+    assertNotSame(shape, DocumentShape.of(new String[] {"y", "x"}, 2));
+    assertEquals(1, DocumentShape.of(new String[] {"y", "x"}, 2).indexOf("x"));
+  }
+
+  @Test
+  public void of_noKeys_empty() {
+    assertSame(DocumentShape.EMPTY, DocumentShape.of(new String[] {"a"}, 0));
+  }
+
+  @Test
+  public void indexOf_aboveLinearSearchThreshold() {
+    String[] keys = new String[KeyIndex.LINEAR_SEARCH_THRESHOLD * 4];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = "key" + i;
+    }
+    DocumentShape shape = DocumentShape.of(keys, keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(i, shape.indexOf("key" + i));
+    }
+    assertEquals(-1, shape.indexOf("missing"));
+  }
+
+  @Test
+  public void indexOf_cachedSlots() {
+    DocumentShape shape = DocumentShape.of(new String[] {"a", "b", "c"}, 3);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(2, shape.indexOf("c"));
+      assertEquals(2, shape.indexOf(new String("c")));
+      assertEquals(0, shape.indexOf("a"));
+      assertEquals(-1, shape.indexOf("d"));
+    }
+  }
+
+  @Test
+  public void equals_documentsOfSameShape() {
+    BsonDocument document = BsonDocuments.of("a", Integer.valueOf(1), "b", "x");
+    BsonDocument other = BsonDocuments.of("a", Integer.valueOf(1), "b", "y");
+    assertEquals(document, BsonDocuments.copyOf(document));
+    assertFalse(document.equals(other));
+    assertEquals("y", BsonDocuments.copyOf(other).get("b"));
+  }
+}
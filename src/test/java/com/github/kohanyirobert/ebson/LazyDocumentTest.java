@@ -0,0 +1,132 @@
+package com.github.kohanyirobert.ebson;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Date;
+
+public final class LazyDocumentTest extends AbstractBsonTest {
+
+  private final BsonDocument document;
+
+  public LazyDocumentTest() {
+    document = BsonDocuments.of(
+        "string", "value",
+        "int32", Integer.valueOf(42),
+        "embedded", BsonDocuments.of("int64", Long.valueOf(42), "date", new Date(0)),
+        "binary", new byte[] {42},
+        "null", null);
+  }
+
+  @Test
+  public void readLazilyFrom_advancesPosition() {
+    ByteBuffer buffer = write(document, document);
+    BsonDocuments.readLazilyFrom(buffer);
+    assertEquals(BsonDocuments.binarySize(document), buffer.position());
+    assertEquals(document.get("string"), BsonDocuments.readLazilyFrom(buffer).get("string"));
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test
+  public void get_embedded() {
+    BsonDocument lazy = BsonDocuments.readLazilyFrom(write(document));
+    BsonDocument embedded = lazy.get("embedded", BsonDocument.class);
+    assertEquals(Long.valueOf(42), embedded.get("int64"));
+    assertEquals(document.get("embedded"), embedded);
+  }
+
+  @Test
+  public void keySet_retainsOrder() {
+    BsonDocument lazy = BsonDocuments.readLazilyFrom(write(document));
+    assertEquals(document.keySet().toString(), lazy.keySet().toString());
+    assertTrue(lazy.containsKey("null"));
+  }
+
+  @Test
+  public void equalsEagerlyReadDocument() {
+    BsonDocument withoutBinary = BsonDocuments.of(
+        "string", document.get("string"),
+        "embedded", document.get("embedded"),
+        "null", null);
+    BsonDocument lazy = BsonDocuments.readLazilyFrom(write(withoutBinary));
+    BsonDocument eager = BsonDocuments.readFrom(write(withoutBinary));
+    assertEquals(eager, lazy);
+    assertEquals(eager.hashCode(), lazy.hashCode());
+    assertEquals(eager.toString(), lazy.toString());
+  }
+
+  @Test
+  public void getInt_andGetLong() {
+    BsonDocument lazy = BsonDocuments.readLazilyFrom(write(document));
+    assertEquals(42, lazy.getInt("int32"));
+    assertEquals(42, lazy.get("embedded", BsonDocument.class).getLong("int64"));
+    assertEquals(7, lazy.getLong("missing", 7));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getLong_withInt32Value() {
+    BsonDocuments.readLazilyFrom(write(document)).getLong("int32");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void get_keyNotPresent() {
+    BsonDocuments.readLazilyFrom(write(document)).get("missing");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void size_duplicateKeys() {
+    ByteBuffer buffer = ByteBuffer.allocate(19).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(19);
+    buffer.put(BsonBytes.INT32).put((byte) 'a').put(BsonBytes.EOO).putInt(1);
+    buffer.put(BsonBytes.INT32).put((byte) 'a').put(BsonBytes.EOO).putInt(2);
+    buffer.put(BsonBytes.EOO).flip();
+    BsonDocuments.readLazilyFrom(buffer).size();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void remove_notSupported() {
+    BsonDocuments.readLazilyFrom(write(document)).remove("string");
+  }
+
+  @Test
+  public void bytes_areTheSerializedDocument() {
+    byte[] expected = BsonDocuments.toByteArray(document);
+    BsonRawDocument raw = BsonDocuments.readLazilyFrom(ByteBuffer.wrap(expected).order(ByteOrder.LITTLE_ENDIAN));
+    raw.get("embedded");
+    ByteBuffer bytes = raw.bytes();
+    byte[] actual = new byte[bytes.remaining()];
+    bytes.get(actual);
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void embeddedRawDocument_isCopiedVerbatim() {
+    BsonRawDocument raw = BsonDocuments.rawCopyOf(document);
+    BsonDocument outer = BsonDocuments.of("raw", raw, "int32", Integer.valueOf(1));
+    BsonDocument expected = BsonDocuments.of("raw", document, "int32", Integer.valueOf(1));
+    assertEquals(BsonDocuments.binarySize(expected), BsonDocuments.binarySize(outer));
+    assertArrayEquals(BsonDocuments.toByteArray(expected), BsonDocuments.toByteArray(outer));
+  }
+
+  @Test
+  public void rawCopyOf_rawDocument_isSame() {
+    BsonRawDocument raw = BsonDocuments.readLazilyFrom(write(document));
+    assertSame(raw, BsonDocuments.rawCopyOf(raw));
+  }
+
+  private static ByteBuffer write(BsonDocument... documents) {
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    for (BsonDocument each : documents) {
+      BsonDocuments.writeTo(buffer, each);
+    }
+    buffer.flip();
+    return buffer;
+  }
+}
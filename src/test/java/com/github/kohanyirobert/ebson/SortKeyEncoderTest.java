@@ -0,0 +1,100 @@
+package com.github.kohanyirobert.ebson;
+
+import com.google.common.primitives.UnsignedBytes;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.regex.Pattern;
+
+public final class SortKeyEncoderTest extends AbstractBsonTest {
+
+  private static final Comparator<byte[]> COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+  @Test
+  public void sortKey_ordersValuesLikeMongoDb() {
+    Object[] ascending = new Object[] {
+        null,
+        Double.valueOf(Double.NaN),
+        Double.valueOf(Double.NEGATIVE_INFINITY),
+        Double.valueOf(-1e300),
+        Long.valueOf(Long.MIN_VALUE),
+        Double.valueOf(-1.5),
+        Integer.valueOf(-1),
+        Double.valueOf(-0.5),
+        Integer.valueOf(0),
+        Double.valueOf(0.25),
+        Long.valueOf(1),
+        Double.valueOf(1.5),
+        Double.valueOf(0x1p53),
+        Long.valueOf((1L << 53) + 1),
+        Long.valueOf(Long.MAX_VALUE),
+        Double.valueOf(0x1p63),
+        Double.valueOf(Double.POSITIVE_INFINITY),
+        "",
+        "a",
+        "a\0",
+        "ab",
+        "b",
+        BsonDocuments.of(),
+        BsonDocuments.of("a", Integer.valueOf(1)),
+        BsonDocuments.of("a", Integer.valueOf(1), "b", null),
+        BsonDocuments.of("a", Integer.valueOf(2)),
+        BsonDocuments.of("b", Integer.valueOf(0)),
+        new int[] {},
+        new int[] {1},
+        new Object[] {Integer.valueOf(1), "a"},
+        new int[] {2},
+        new byte[] {9},
+        new byte[] {1, 2},
+        Boolean.FALSE,
+        Boolean.TRUE,
+        new Date(-1),
+        new Date(0),
+        Pattern.compile("a"),
+        Pattern.compile("a", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("b")};
+    byte[] previous = null;
+    for (Object value : ascending) {
+      byte[] key = sortKey(BsonDocuments.of("v", value), "v");
+      if (previous != null) {
+        assertTrue(String.valueOf(value), COMPARATOR.compare(previous, key) < 0);
+      }
+      previous = key;
+    }
+  }
+
+  @Test
+  public void sortKey_equalNumbers() {
+    byte[] key = sortKey(BsonDocuments.of("v", Integer.valueOf(1)), "v");
+    assertArrayEquals(key, sortKey(BsonDocuments.of("v", Long.valueOf(1)), "v"));
+    assertArrayEquals(key, sortKey(BsonDocuments.of("v", Double.valueOf(1)), "v"));
+    assertArrayEquals(
+        sortKey(BsonDocuments.of("v", Double.valueOf(0)), "v"),
+        sortKey(BsonDocuments.of("v", Double.valueOf(-0.0)), "v"));
+  }
+
+  @Test
+  public void sortKey_path() {
+    BsonDocument document = BsonDocuments.of(
+        "a", BsonDocuments.of("b", "x"),
+        "c", new Object[] {"y", "z"});
+    assertArrayEquals(sortKey(BsonDocuments.of("v", "x"), "v"), sortKey(document, "a.b"));
+    assertArrayEquals(sortKey(BsonDocuments.of("v", "z"), "v"), sortKey(document, "c.1"));
+    byte[] nullKey = sortKey(BsonDocuments.of("v", null), "v");
+    assertArrayEquals(nullKey, sortKey(document, "missing"));
+    assertArrayEquals(nullKey, sortKey(document, "a.b.c"));
+    assertArrayEquals(nullKey, sortKey(document, "a.bb"));
+  }
+
+  private static byte[] sortKey(BsonDocument document, String path) {
+    ByteBuffer buffer = ByteBuffer.wrap(BsonDocuments.toByteArray(document)).order(ByteOrder.LITTLE_ENDIAN);
+    return BsonDocuments.sortKey(buffer, path);
+  }
+}